@@ -0,0 +1,200 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.load;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataModel;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+
+/**
+ * The author, book and chapter DataModels, ModelMappers and DataGroupModels used
+ * by the load harness
+ */
+public final class LoadDataModels {
+
+    private LoadDataModels() {
+    }
+
+    public static class Author implements DataModel {
+
+        private int id;
+        private String name;
+        private List<Book> books;
+
+        @Override
+        public String uniqueIdentifier() {
+            return this.id + "";
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<Book> getBooks() {
+            return books;
+        }
+    }
+
+    public static class Book implements DataModel {
+
+        private int id;
+        private String title;
+        private List<Chapter> chapters;
+
+        @Override
+        public String uniqueIdentifier() {
+            return this.id + "";
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public List<Chapter> getChapters() {
+            return chapters;
+        }
+    }
+
+    public static class Chapter implements DataModel {
+
+        private int id;
+        private String title;
+        private int pages;
+
+        @Override
+        public String uniqueIdentifier() {
+            return this.id + "";
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public int getPages() {
+            return pages;
+        }
+    }
+
+    public static class AuthorModelMapper implements ModelMapper<Author> {
+
+        @Override
+        public Author map(Row row, RowMetadata rowMetadata) {
+            Integer id = row.get("authorId", Integer.class);
+            if (id == null) {
+                return null;
+            }
+            Author author = new Author();
+            author.id = id;
+            author.name = row.get("authorName", String.class);
+            return author;
+        }
+
+        @Override
+        public List<DataGroupModel> getDataGroupModels() {
+            return Collections.emptyList();
+        }
+    }
+
+    public static class BookModelMapper implements ModelMapper<Book> {
+
+        @Override
+        public Book map(Row row, RowMetadata rowMetadata) {
+            Integer id = row.get("bookId", Integer.class);
+            if (id == null) {
+                return null;
+            }
+            Book book = new Book();
+            book.id = id;
+            book.title = row.get("bookTitle", String.class);
+            return book;
+        }
+
+        @Override
+        public List<DataGroupModel> getDataGroupModels() {
+            return Collections.singletonList(new Author2BookDataGroupModel());
+        }
+    }
+
+    public static class ChapterModelMapper implements ModelMapper<Chapter> {
+
+        @Override
+        public Chapter map(Row row, RowMetadata rowMetadata) {
+            Integer id = row.get("chapterId", Integer.class);
+            if (id == null) {
+                return null;
+            }
+            Chapter chapter = new Chapter();
+            chapter.id = id;
+            chapter.title = row.get("chapterTitle", String.class);
+            chapter.pages = row.get("chapterPages", Integer.class);
+            return chapter;
+        }
+
+        @Override
+        public List<DataGroupModel> getDataGroupModels() {
+            return Collections.singletonList(new Book2ChapterDataGroupModel());
+        }
+    }
+
+    public static class Author2BookDataGroupModel implements DataGroupModel<Author, Book> {
+
+        @Override
+        public Class<Author> base() {
+            return Author.class;
+        }
+
+        @Override
+        public Class<Book> collectable() {
+            return Book.class;
+        }
+
+        @Override
+        public List<Book> getCollectables(Author base) {
+            return base.books;
+        }
+
+        @Override
+        public void setCollectables(Author base, List<Book> collectables) {
+            base.books = collectables;
+        }
+    }
+
+    public static class Book2ChapterDataGroupModel implements DataGroupModel<Book, Chapter> {
+
+        @Override
+        public Class<Book> base() {
+            return Book.class;
+        }
+
+        @Override
+        public Class<Chapter> collectable() {
+            return Chapter.class;
+        }
+
+        @Override
+        public List<Chapter> getCollectables(Book base) {
+            return base.chapters;
+        }
+
+        @Override
+        public void setCollectables(Book base, List<Chapter> collectables) {
+            base.chapters = collectables;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.HdrHistogram.Histogram;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * The measurements of a single load run: throughput, latency percentiles, GC
+ * pauses, the number of GC collections and their cumulative collection time,
+ * and peak heap usage
+ * <p>
+ * The GC pauses are the durations of the stop-the-world collections, received
+ * one by one as GarbageCollectionNotificationInfo while the run is recorded:
+ * their count, total and maximum are reported. The cumulative collection time
+ * is the sum of GarbageCollectorMXBean collection times instead, which includes
+ * the concurrent cycles of the collectors, so that it is not a measure of the
+ * application pauses.
+ * </p>
+ */
+public class LoadReport {
+
+    /**
+     * The metrics compared against the baseline, the GC pauses and collections
+     * are reported only since they are too noisy to be compared
+     */
+    private static final List<String> COMPARED = List.of("result.throughput", "result.latency.p50.ms",
+            "result.latency.p99.ms", "result.latency.p999.ms", "result.heap.peak.mb");
+    /**
+     * The compared metric where a higher value is better, every other metric is
+     * better when lower
+     */
+    private static final String HIGHER_IS_BETTER = "result.throughput";
+    /**
+     * The prefix of the keys describing the configuration of the run
+     */
+    private static final String CONFIGURATION_PREFIX = "config.";
+
+    /**
+     * The configuration of the run and its measurements, keyed by metric
+     */
+    private final Properties metrics;
+
+    /**
+     * Private constructor, use Recorder::stop or LoadReport::load to create a
+     * report
+     *
+     * @param metrics the configuration of the run and its measurements
+     */
+    private LoadReport(Properties metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Start recording the GC pauses, the GC collections and peak heap usage
+     *
+     * @return the Recorder
+     */
+    public static Recorder start() {
+        return new Recorder();
+    }
+
+    /**
+     * Read a report previously saved with {@link #save(Path, String)}
+     *
+     * @param path the report path
+     * @return the report or null if the path does not exist
+     * @throws IOException if the report cannot be read
+     */
+    public static LoadReport load(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        Properties metrics = new Properties();
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            metrics.load(inputStream);
+        }
+        return new LoadReport(metrics);
+    }
+
+    /**
+     * Store the report as a properties file, creating its parent directories
+     *
+     * @param path    the report path
+     * @param comment the comment written at the top of the file
+     * @throws IOException if the report cannot be written
+     */
+    public void save(Path path, String comment) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            this.metrics.store(outputStream, comment);
+        }
+    }
+
+    /**
+     * Retrieve the value of a metric
+     *
+     * @param metric the metric, e.g. result.latency.p99.ms
+     * @return the value of the metric or 0 if it was not measured
+     */
+    public double get(String metric) {
+        return Double.parseDouble(this.metrics.getProperty(metric, "0"));
+    }
+
+    /**
+     * Compare the configuration of the run against the configuration of a
+     * baseline, i.e. every config.* key of either report
+     *
+     * @param baseline the baseline report
+     * @return the description of each configuration key that differs, empty if
+     *         the runs are comparable
+     */
+    public List<String> mismatches(LoadReport baseline) {
+        Set<String> keys = new TreeSet<>();
+        for (Properties properties : List.of(this.metrics, baseline.metrics)) {
+            properties.stringPropertyNames().stream().filter(key -> key.startsWith(CONFIGURATION_PREFIX))
+                    .forEach(keys::add);
+        }
+        List<String> mismatches = new ArrayList<>();
+        for (String key : keys) {
+            String current = this.metrics.getProperty(key);
+            String expected = baseline.metrics.getProperty(key);
+            if (!Objects.equals(current, expected)) {
+                mismatches.add(String.format("%s: %s (baseline %s)", key, current, expected));
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Compare each metric against a baseline
+     * <p>
+     * The comparison is meaningful only if the runs share the same
+     * configuration, see LoadReport::mismatches.
+     * </p>
+     *
+     * @param baseline  the baseline report
+     * @param tolerance the accepted relative regression, e.g. 0.2 for 20%
+     * @return the description of each metric that regressed beyond tolerance
+     */
+    public List<String> regressions(LoadReport baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (String metric : COMPARED) {
+            if (!baseline.metrics.containsKey(metric)) {
+                continue;
+            }
+            double current = this.get(metric);
+            double expected = baseline.get(metric);
+            boolean higherIsBetter = HIGHER_IS_BETTER.equals(metric);
+            boolean regressed = higherIsBetter ? current < expected * (1 - tolerance)
+                    : current > expected * (1 + tolerance);
+            if (regressed) {
+                regressions.add(String.format("%s: %.2f (baseline %.2f)", metric, current, expected));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Describe every metric on its own line, sorted by metric
+     *
+     * @return the human readable report
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        this.metrics.stringPropertyNames().stream().sorted()
+                .forEach(metric -> builder.append(String.format("%-32s %s%n", metric, this.metrics.get(metric))));
+        return builder.toString();
+    }
+
+    /**
+     * The class definition to record the JVM activity during a run
+     */
+    public static class Recorder {
+
+        /**
+         * The number of GC collections when the recording started
+         */
+        private final long gcCollections;
+        /**
+         * The cumulative GC collection time in milliseconds when the recording
+         * started
+         */
+        private final long gcCollectionTime;
+        /**
+         * The System::nanoTime when the recording started
+         */
+        private final long startNanos;
+        /**
+         * The number of GC pauses since the recording started
+         */
+        private final AtomicLong gcPauses;
+        /**
+         * The total duration in milliseconds of the GC pauses since the recording
+         * started
+         */
+        private final AtomicLong gcPauseTime;
+        /**
+         * The longest GC pause in milliseconds since the recording started
+         */
+        private final AtomicLong gcPauseMax;
+        /**
+         * The listener of the GC notifications, registered on every
+         * GarbageCollectorMXBean emitting them
+         */
+        private final NotificationListener gcListener;
+
+        /**
+         * Private constructor, use LoadReport::start to start recording
+         */
+        private Recorder() {
+            this.gcPauses = new AtomicLong();
+            this.gcPauseTime = new AtomicLong();
+            this.gcPauseMax = new AtomicLong();
+            this.gcListener = (notification, handback) -> this.onGc(notification);
+            for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (garbageCollector instanceof NotificationEmitter) {
+                    ((NotificationEmitter) garbageCollector).addNotificationListener(this.gcListener, null, null);
+                }
+            }
+            ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+            this.gcCollections = gcCollections();
+            this.gcCollectionTime = gcCollectionTime();
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * <strong>onGc</strong> record the duration of a stop-the-world collection,
+         * ignoring the concurrent cycles, e.g. those of ZGC and Shenandoah
+         *
+         * @param notification the notification emitted by a GarbageCollectorMXBean
+         */
+        private void onGc(Notification notification) {
+            // Guard point: not a collection
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+                    .from((CompositeData) notification.getUserData());
+            // Guard point: a concurrent cycle does not stop the application
+            if (info.getGcAction().contains("cycle") || info.getGcName().contains("Cycles")
+                    || info.getGcName().contains("Concurrent")) {
+                return;
+            }
+            long duration = info.getGcInfo().getDuration();
+            this.gcPauses.incrementAndGet();
+            this.gcPauseTime.addAndGet(duration);
+            this.gcPauseMax.accumulateAndGet(duration, Math::max);
+        }
+
+        /**
+         * Stop recording and build the report
+         *
+         * @param configuration the run configuration, stored as is
+         * @param histogram     the latency histogram in nanoseconds
+         * @return the report
+         */
+        public LoadReport stop(Properties configuration, Histogram histogram) {
+            long elapsedNanos = System.nanoTime() - this.startNanos;
+            for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (garbageCollector instanceof NotificationEmitter) {
+                    try {
+                        ((NotificationEmitter) garbageCollector).removeNotificationListener(this.gcListener);
+                    } catch (ListenerNotFoundException e) {
+                        // the GarbageCollectorMXBean did not accept the listener
+                    }
+                }
+            }
+            long peakHeap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            Properties metrics = new Properties();
+            configuration.forEach(metrics::put);
+            metrics.setProperty("result.throughput", String.format(Locale.ROOT, "%.2f",
+                    histogram.getTotalCount() / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1))));
+            metrics.setProperty("result.latency.p50.ms", millis(histogram.getValueAtPercentile(50)));
+            metrics.setProperty("result.latency.p99.ms", millis(histogram.getValueAtPercentile(99)));
+            metrics.setProperty("result.latency.p999.ms", millis(histogram.getValueAtPercentile(99.9)));
+            metrics.setProperty("result.latency.max.ms", millis(histogram.getMaxValue()));
+            metrics.setProperty("result.gc.pauses", Long.toString(this.gcPauses.get()));
+            metrics.setProperty("result.gc.pause.total.ms", Long.toString(this.gcPauseTime.get()));
+            metrics.setProperty("result.gc.pause.max.ms", Long.toString(this.gcPauseMax.get()));
+            metrics.setProperty("result.gc.collections", Long.toString(gcCollections() - this.gcCollections));
+            metrics.setProperty("result.gc.collection.time.ms",
+                    Long.toString(gcCollectionTime() - this.gcCollectionTime));
+            metrics.setProperty("result.heap.peak.mb", String.format(Locale.ROOT, "%.2f", peakHeap / (1024.0 * 1024.0)));
+            return new LoadReport(metrics);
+        }
+
+        /**
+         * Format nanoseconds as milliseconds
+         *
+         * @param nanos the nanoseconds
+         * @return the milliseconds with 3 decimals
+         */
+        private static String millis(long nanos) {
+            return String.format(Locale.ROOT, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        /**
+         * Sum the collections of every garbage collector
+         *
+         * @return the number of collections since the JVM started
+         */
+        private static long gcCollections() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                    .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(count -> count > 0).sum();
+        }
+
+        /**
+         * Sum the approximate accumulated collection time of every garbage
+         * collector
+         *
+         * @return the cumulative collection time in milliseconds since the JVM
+         *         started
+         */
+        private static long gcCollectionTime() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                    .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(time -> time > 0).sum();
+        }
+    }
+}
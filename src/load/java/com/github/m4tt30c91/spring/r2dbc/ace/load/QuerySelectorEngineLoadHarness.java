@@ -0,0 +1,186 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.load;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.Assert;
+
+import com.github.m4tt30c91.spring.r2dbc.ace.engine.QuerySelectorEngine;
+import com.github.m4tt30c91.spring.r2dbc.ace.load.LoadDataModels.Author;
+import com.github.m4tt30c91.spring.r2dbc.ace.load.LoadDataModels.AuthorModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.load.LoadDataModels.BookModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.load.LoadDataModels.ChapterModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapper;
+
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * End-to-end load harness driving the QuerySelectorEngine against an embedded
+ * H2 database
+ * <p>
+ * Run with <code>mvn -B test -Pload</code>. Every option is read from a system
+ * property, e.g. <code>-Dace.load.concurrency=64</code>:
+ * </p>
+ * <ul>
+ * <li>ace.load.authors: the number of authors generated (default 2000)</li>
+ * <li>ace.load.books: the number of books for each author (default 10)</li>
+ * <li>ace.load.chapters: the number of chapters for each book, 0 to select
+ * authors and books only (default 5)</li>
+ * <li>ace.load.fanOut: the number of authors selected by each query (default
+ * 10)</li>
+ * <li>ace.load.concurrency: the number of concurrent queries (default 16)</li>
+ * <li>ace.load.warmUpRequests: the number of unmeasured queries (default
+ * 500)</li>
+ * <li>ace.load.requests: the number of measured queries (default 5000)</li>
+ * <li>ace.load.baseline: the baseline report (default
+ * src/load/resources/baseline.properties), compared only if its config keys
+ * match the run</li>
+ * <li>ace.load.tolerance: the accepted relative regression against the baseline
+ * (default 0.2)</li>
+ * <li>ace.load.failOnRegression: fail the run if a metric regressed beyond
+ * tolerance (default false)</li>
+ * <li>ace.load.saveBaseline: store the report as the new baseline (default
+ * false)</li>
+ * </ul>
+ * <p>
+ * The report of each run is stored in target/load-report.properties. The
+ * committed baseline records the machine it was measured on in its config
+ * keys and was taken with the default options on a single CPU: record a new
+ * one with ace.load.saveBaseline before comparing runs on another machine.
+ * </p>
+ */
+public class QuerySelectorEngineLoadHarness {
+
+    private static final String AUTHORS_SQL = "SELECT a.id AS authorId, a.name AS authorName, b.id AS bookId, b.title AS bookTitle FROM author a JOIN book b ON a.id = b.author_id WHERE a.id BETWEEN :fromId AND :toId ORDER BY a.id";
+    private static final String CHAPTERS_SQL = "SELECT a.id AS authorId, a.name AS authorName, b.id AS bookId, b.title AS bookTitle, c.id AS chapterId, c.title AS chapterTitle, c.pages AS chapterPages FROM author a JOIN book b ON a.id = b.author_id JOIN chapter c ON b.id = c.book_id WHERE a.id BETWEEN :fromId AND :toId ORDER BY a.id";
+
+    private final int authors = Integer.getInteger("ace.load.authors", 2000);
+    private final int books = Integer.getInteger("ace.load.books", 10);
+    private final int chapters = Integer.getInteger("ace.load.chapters", 5);
+    private final int fanOut = Integer.getInteger("ace.load.fanOut", 10);
+    private final int concurrency = Integer.getInteger("ace.load.concurrency", 16);
+    private final int warmUpRequests = Integer.getInteger("ace.load.warmUpRequests", 500);
+    private final int requests = Integer.getInteger("ace.load.requests", 5000);
+    private final Path baseline = Paths
+            .get(System.getProperty("ace.load.baseline", "src/load/resources/baseline.properties"));
+    private final double tolerance = Double.parseDouble(System.getProperty("ace.load.tolerance", "0.2"));
+    private final boolean failOnRegression = Boolean.getBoolean("ace.load.failOnRegression");
+    private final boolean saveBaseline = Boolean.getBoolean("ace.load.saveBaseline");
+
+    private ConnectionPool connectionPool;
+    private QuerySelectorEngine querySelectorEngine;
+
+    @BeforeEach
+    public void setUp() {
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(H2ConnectionFactory.inMemory("ace-load"))
+                .initialSize(this.concurrency)
+                .maxSize(this.concurrency)
+                .build());
+        DatabaseClient databaseClient = DatabaseClient.create(this.connectionPool);
+        this.generate(databaseClient).block(Duration.ofMinutes(10));
+        this.querySelectorEngine = new QuerySelectorEngine(databaseClient);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.connectionPool.dispose();
+    }
+
+    @Test
+    public void run() throws Exception {
+        ModelMapper[] modelMappers = this.chapters > 0
+                ? new ModelMapper[] { new AuthorModelMapper(), new BookModelMapper(), new ChapterModelMapper() }
+                : new ModelMapper[] { new AuthorModelMapper(), new BookModelMapper() };
+        String sql = this.chapters > 0 ? CHAPTERS_SQL : AUTHORS_SQL;
+
+        this.drive(sql, modelMappers, this.warmUpRequests, new Recorder(3));
+
+        Recorder recorder = new Recorder(3);
+        LoadReport.Recorder reportRecorder = LoadReport.start();
+        this.drive(sql, modelMappers, this.requests, recorder);
+        Histogram histogram = recorder.getIntervalHistogram();
+        LoadReport report = reportRecorder.stop(this.configuration(), histogram);
+
+        System.out.println(report.format());
+        report.save(Paths.get("target", "load-report.properties"), "QuerySelectorEngine load report");
+        LoadReport baselineReport = LoadReport.load(this.baseline);
+        if (this.saveBaseline) {
+            report.save(this.baseline, "QuerySelectorEngine load baseline");
+        } else if (baselineReport != null) {
+            // Guard point: a baseline measured with another configuration is not comparable
+            List<String> mismatches = report.mismatches(baselineReport);
+            if (!mismatches.isEmpty()) {
+                mismatches.forEach(mismatch -> System.out.println("CONFIGURATION MISMATCH " + mismatch));
+                System.out.println("Skipping the comparison against " + this.baseline);
+                return;
+            }
+            List<String> regressions = report.regressions(baselineReport, this.tolerance);
+            regressions.forEach(regression -> System.out.println("REGRESSION " + regression));
+            Assert.isTrue(!this.failOnRegression || regressions.isEmpty(), "Should not regress: " + regressions);
+        }
+    }
+
+    private void drive(String sql, ModelMapper[] modelMappers, int count, Recorder recorder) {
+        int windows = Math.max(1, this.authors / this.fanOut);
+        Flux.range(0, count)
+                .flatMap(i -> {
+                    int fromId = (i % windows) * this.fanOut + 1;
+                    return Mono.defer(() -> {
+                        long start = System.nanoTime();
+                        return this.querySelectorEngine.processSql(sql)
+                                .bind("fromId", fromId)
+                                .bind("toId", fromId + this.fanOut - 1)
+                                .applyModelMappers(modelMappers)
+                                .selectMany(Author.class)
+                                .doOnNext(list -> recorder.recordValue(System.nanoTime() - start));
+                    });
+                }, this.concurrency)
+                .then()
+                .block(Duration.ofHours(1));
+    }
+
+    private Mono<Void> generate(DatabaseClient databaseClient) {
+        int bookCount = this.authors * this.books;
+        return Flux.just(
+                "DROP ALL OBJECTS",
+                "CREATE TABLE author (id INTEGER PRIMARY KEY, name VARCHAR(128))",
+                "CREATE TABLE book (id INTEGER PRIMARY KEY, title VARCHAR(255), author_id INTEGER)",
+                "CREATE TABLE chapter (id INTEGER PRIMARY KEY, title VARCHAR(255), pages INTEGER, book_id INTEGER)",
+                "CREATE INDEX book_author_id ON book(author_id)",
+                "CREATE INDEX chapter_book_id ON chapter(book_id)",
+                "INSERT INTO author(id, name) SELECT X, CONCAT('Author ', X) FROM SYSTEM_RANGE(1, " + this.authors + ")",
+                "INSERT INTO book(id, title, author_id) SELECT X, CONCAT('Book ', X), (X - 1) / " + this.books
+                        + " + 1 FROM SYSTEM_RANGE(1, " + bookCount + ")",
+                "INSERT INTO chapter(id, title, pages, book_id) SELECT X, CONCAT('Chapter ', X), MOD(X, 40) + 1, (X - 1) / "
+                        + Math.max(1, this.chapters) + " + 1 FROM SYSTEM_RANGE(1, " + bookCount * this.chapters + ")")
+                .concatMap(statement -> databaseClient.sql(statement).then())
+                .then();
+    }
+
+    private Properties configuration() {
+        Properties configuration = new Properties();
+        configuration.setProperty("config.authors", Integer.toString(this.authors));
+        configuration.setProperty("config.books", Integer.toString(this.books));
+        configuration.setProperty("config.chapters", Integer.toString(this.chapters));
+        configuration.setProperty("config.fanOut", Integer.toString(this.fanOut));
+        configuration.setProperty("config.concurrency", Integer.toString(this.concurrency));
+        configuration.setProperty("config.requests", Integer.toString(this.requests));
+        configuration.setProperty("config.jvm", System.getProperty("java.vm.name") + " "
+                + System.getProperty("java.version") + " -Xmx" + Runtime.getRuntime().maxMemory() / (1024 * 1024) + "m");
+        return configuration;
+    }
+}
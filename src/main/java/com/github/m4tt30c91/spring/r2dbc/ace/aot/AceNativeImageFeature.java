@@ -0,0 +1,66 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.aot;
+
+import java.util.function.BiConsumer;
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.hosted.RuntimeReflection;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataModel;
+
+/**
+ * The GraalVM native-image Feature registering the reflection metadata required
+ * by the library, so that no reflection fallback is needed at run time
+ * <p>
+ * Every DataModel, DataGroupModel and ModelMapper implementation reachable from
+ * the application is registered as soon as the analysis finds it: the generic
+ * signatures are retained, so that ModelMapperRegistry::resolveDataModelClass
+ * resolves the emitted class, and the constructors, methods and fields are
+ * registered, so that the DataModels can be serialized by Jackson through
+ * QueryResultProcessor::writeNdjson and QueryResultProcessor::writeJsonArray.
+ * The auto-configuration is registered as well when Spring Boot is on the
+ * classpath. The Feature is enabled by the native-image.properties shipped in
+ * META-INF/native-image, no build argument is required.
+ * </p>
+ */
+public class AceNativeImageFeature implements Feature {
+
+    /**
+     * The name of the auto-configuration class, resolved by name since Spring Boot
+     * is an optional dependency
+     */
+    private static final String AUTO_CONFIGURATION = "com.github.m4tt30c91.spring.r2dbc.ace.autoconfigure.AceAutoConfiguration";
+    /**
+     * The types whose implementations are registered for reflection
+     */
+    private static final Class<?>[] REFLECTIVE_TYPES = { DataModel.class, DataGroupModel.class, ModelMapper.class };
+
+    @Override
+    public String getDescription() {
+        return "Registers the DataModels, DataGroupModels and ModelMappers of Spring R2DBC ACE for reflection";
+    }
+
+    @Override
+    public void beforeAnalysis(BeforeAnalysisAccess access) {
+        BiConsumer<DuringAnalysisAccess, Class<?>> handler = (duringAnalysisAccess, type) -> register(type);
+        for (Class<?> reflectiveType : REFLECTIVE_TYPES) {
+            access.registerSubtypeReachabilityHandler(handler, reflectiveType);
+        }
+        Class<?> autoConfiguration = access.findClassByName(AUTO_CONFIGURATION);
+        if (autoConfiguration != null) {
+            register(autoConfiguration);
+        }
+    }
+
+    /**
+     * <strong>register</strong> register a type, its constructors, methods and
+     * fields for reflection
+     *
+     * @param type the type
+     */
+    private static void register(Class<?> type) {
+        RuntimeReflection.register(type);
+        RuntimeReflection.register(type.getDeclaredConstructors());
+        RuntimeReflection.register(type.getDeclaredMethods());
+        RuntimeReflection.register(type.getDeclaredFields());
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.autoconfigure;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnSingleCandidate;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.r2dbc.core.DatabaseClient;
+import com.github.m4tt30c91.spring.r2dbc.ace.engine.QuerySelectorEngine;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapperRegistry;
+
+/**
+ * The Spring Boot auto-configuration of the ModelMapperRegistry and the
+ * QuerySelectorEngine
+ * <p>
+ * The ModelMapperRegistry is populated by every ModelMapperRegistrar bean, so
+ * that misconfigured ModelMappers make the application fail at startup. If the
+ * property <em>spring.r2dbc.ace.warm-up.iterations</em> is set, the registered
+ * warm up records are processed once the singletons are instantiated.
+ * </p>
+ */
+@AutoConfiguration(after = R2dbcAutoConfiguration.class)
+@ConditionalOnClass(DatabaseClient.class)
+public class AceAutoConfiguration {
+
+    /**
+     * <strong>modelMapperRegistry</strong> create the ModelMapperRegistry and apply
+     * each ModelMapperRegistrar
+     *
+     * @param modelMapperRegistrars the ModelMapperRegistrar beans
+     * @return the ModelMapperRegistry
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ModelMapperRegistry modelMapperRegistry(ObjectProvider<ModelMapperRegistrar> modelMapperRegistrars) {
+        ModelMapperRegistry modelMapperRegistry = new ModelMapperRegistry();
+        modelMapperRegistrars.orderedStream().forEach(registrar -> registrar.register(modelMapperRegistry));
+        return modelMapperRegistry;
+    }
+
+    /**
+     * <strong>querySelectorEngine</strong> create the QuerySelectorEngine for the
+     * DatabaseClient
+     *
+     * @param databaseClient the DatabaseClient
+     * @return the QuerySelectorEngine
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnSingleCandidate(DatabaseClient.class)
+    public QuerySelectorEngine querySelectorEngine(DatabaseClient databaseClient) {
+        return new QuerySelectorEngine(databaseClient);
+    }
+
+    /**
+     * <strong>querySelectorEngineWarmUp</strong> warm up the QuerySelectorEngine
+     * with the records registered in the ModelMapperRegistry
+     *
+     * @param querySelectorEngine the QuerySelectorEngine
+     * @param modelMapperRegistry the ModelMapperRegistry
+     * @param environment         the Environment
+     * @return the SmartInitializingSingleton performing the warm up
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.r2dbc.ace.warm-up", name = "iterations")
+    public SmartInitializingSingleton querySelectorEngineWarmUp(ObjectProvider<QuerySelectorEngine> querySelectorEngine,
+            ModelMapperRegistry modelMapperRegistry, Environment environment) {
+        int iterations = environment.getProperty("spring.r2dbc.ace.warm-up.iterations", Integer.class, 0);
+        return () -> querySelectorEngine.ifAvailable(engine -> engine.warmUp(modelMapperRegistry, iterations));
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.autoconfigure;
+
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapperRegistry;
+
+/**
+ * The interface to be implemented by beans that register ModelMappers in the
+ * auto-configured ModelMapperRegistry
+ */
+@FunctionalInterface
+public interface ModelMapperRegistrar {
+
+    /**
+     * <strong>register</strong> register ModelMappers and, optionally, warm up
+     * records in the ModelMapperRegistry
+     *
+     * @param modelMapperRegistry the ModelMapperRegistry
+     */
+    void register(ModelMapperRegistry modelMapperRegistry);
+}
@@ -0,0 +1,255 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.r2dbc.connection.SingleConnectionFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import com.github.m4tt30c91.spring.r2dbc.ace.engine.QuerySelectorEngine.QueryProcessor;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapperSet;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataModel;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * A batch of independent select statements submitted together
+ * <p>
+ * If the driver pipelines the statements submitted on the same connection, the
+ * whole batch is executed on a single connection with every statement in
+ * flight at the same time, saving round trips and connection checkouts.
+ * Otherwise the statements are executed concurrently, each one on its own
+ * connection.
+ * </p>
+ */
+public class QueryBatch {
+
+    /**
+     * The names, as reported by ConnectionFactoryMetadata, of the drivers known to
+     * pipeline the statements submitted on the same connection
+     */
+    private static final Set<String> PIPELINING_DRIVERS = new HashSet<>(Arrays.asList("PostgreSQL"));
+
+    /**
+     * The strategy used to execute the statements of the batch
+     */
+    public enum Mode {
+        /**
+         * Use a single connection if the driver supports pipelining, concurrent
+         * connections otherwise
+         */
+        AUTO,
+        /**
+         * Use a single connection, pipelining the statements if the driver supports
+         * it and executing them one after the other otherwise
+         */
+        SINGLE_CONNECTION,
+        /**
+         * Execute each statement concurrently, each one on its own connection
+         */
+        CONCURRENT
+    }
+
+    /**
+     * The DatabaseClient of the QuerySelectorEngine that created the batch, or
+     * null if the statements can only be executed concurrently
+     */
+    private final DatabaseClient databaseClient;
+    /**
+     * The function running a single connection execution on the DatabaseClient it
+     * chooses, e.g. the primary or a replica
+     */
+    private final Function<Function<DatabaseClient, Mono<Results>>, Mono<Results>> singleConnectionRouter;
+    /**
+     * The statements of the batch, each one as a function of the DatabaseClient
+     * that executes it, or of null to execute it through its own
+     * QuerySelectorEngine
+     */
+    private final List<Function<DatabaseClient, Mono<? extends List<? extends DataModel>>>> statements;
+    /**
+     * The strategy used to execute the statements
+     */
+    private Mode mode;
+
+    /**
+     * Package-private constructor, use QuerySelectorEngine::batch to create a
+     * batch
+     *
+     * @param databaseClient the DatabaseClient of the QuerySelectorEngine, or null
+     *                       if the statements can only be executed concurrently
+     */
+    QueryBatch(DatabaseClient databaseClient) {
+        this(databaseClient, execution -> execution.apply(databaseClient));
+    }
+
+    /**
+     * Package-private constructor, use QuerySelectorEngine::batch to create a
+     * batch
+     *
+     * @param databaseClient         the DatabaseClient of the QuerySelectorEngine,
+     *                               whose driver decides whether the statements
+     *                               are pipelined, or null if the statements can
+     *                               only be executed concurrently
+     * @param singleConnectionRouter the function running a single connection
+     *                               execution on the DatabaseClient it chooses
+     */
+    QueryBatch(DatabaseClient databaseClient,
+            Function<Function<DatabaseClient, Mono<Results>>, Mono<Results>> singleConnectionRouter) {
+        this.databaseClient = databaseClient;
+        this.singleConnectionRouter = singleConnectionRouter;
+        this.statements = new LinkedList<>();
+        this.mode = Mode.AUTO;
+    }
+
+    /**
+     * <strong>mode</strong> set the strategy used to execute the statements
+     *
+     * @param mode the strategy
+     * @return the same QueryBatch to implement fluent programming
+     */
+    public QueryBatch mode(Mode mode) {
+        this.mode = mode;
+        return this;
+    }
+
+    /**
+     * <strong>selectMany</strong> add a statement to the batch, whose result will
+     * be grouped as QueryResultProcessor::selectMany would do
+     *
+     * @param queryProcessor the QueryProcessor of the statement
+     * @param tClass         the target class to be returned from the result
+     *                       processing
+     * @param modelMappers   the array of ModelMappers
+     * @param <T>            the type of the target class
+     * @return the same QueryBatch to implement fluent programming
+     */
+    public <T extends DataModel> QueryBatch selectMany(QueryProcessor queryProcessor, Class<T> tClass,
+            ModelMapper... modelMappers) {
+        return this.selectMany(queryProcessor, tClass, ModelMapperSet.of(modelMappers));
+    }
+
+    /**
+     * <strong>selectMany</strong> add a statement to the batch, whose result will
+     * be grouped as QueryResultProcessor::selectMany would do
+     *
+     * @param queryProcessor the QueryProcessor of the statement
+     * @param tClass         the target class to be returned from the result
+     *                       processing
+     * @param modelMapperSet the ModelMapperSet
+     * @param <T>            the type of the target class
+     * @return the same QueryBatch to implement fluent programming
+     */
+    public <T extends DataModel> QueryBatch selectMany(QueryProcessor queryProcessor, Class<T> tClass,
+            ModelMapperSet modelMapperSet) {
+        this.statements.add(databaseClient -> databaseClient == null
+                ? queryProcessor.applyModelMappers(modelMapperSet).selectMany(tClass)
+                : queryProcessor.applyModelMappers(databaseClient, modelMapperSet).selectMany(tClass));
+        return this;
+    }
+
+    /**
+     * <strong>execute</strong> execute every statement of the batch
+     *
+     * @return the grouped results, in the order the statements have been added
+     */
+    public Mono<Results> execute() {
+        if (this.statements.isEmpty()) {
+            return Mono.just(new Results(Collections.emptyList()));
+        }
+        if (this.databaseClient == null) {
+            return this.execute(null, true);
+        }
+        boolean isPipelining = PIPELINING_DRIVERS.contains(this.metadata().getName());
+        boolean isSingleConnection = this.mode == Mode.SINGLE_CONNECTION || (this.mode == Mode.AUTO && isPipelining);
+        if (!isSingleConnection) {
+            return this.execute(null, true);
+        }
+        return this.singleConnectionRouter.apply(databaseClient -> databaseClient.inConnection(connection -> this.execute(
+                DatabaseClient.create(new SingleConnectionFactory(connection, this.metadata(), true)), isPipelining)));
+    }
+
+    /**
+     * <strong>execute</strong> execute every statement of the batch through the
+     * DatabaseClient
+     *
+     * @param databaseClient the DatabaseClient or null to execute each statement
+     *                       through its own QuerySelectorEngine
+     * @param isConcurrent   true to subscribe every statement at the same time,
+     *                       false to subscribe them one after the other
+     * @return the grouped results, in the order the statements have been added
+     */
+    private Mono<Results> execute(DatabaseClient databaseClient, boolean isConcurrent) {
+        List<Mono<? extends List<? extends DataModel>>> results = this.statements.stream()
+                .map(statement -> statement.apply(databaseClient))
+                .collect(Collectors.toList());
+        if (isConcurrent) {
+            return Mono.zip(results, array -> new Results(Arrays.asList(array)));
+        }
+        return Flux.concat(results).<Object>map(result -> result).collectList().map(Results::new);
+    }
+
+    /**
+     * <strong>metadata</strong> retrieve the ConnectionFactoryMetadata of the
+     * DatabaseClient
+     *
+     * @return the ConnectionFactoryMetadata
+     */
+    private ConnectionFactoryMetadata metadata() {
+        return this.databaseClient.getConnectionFactory().getMetadata();
+    }
+
+    /**
+     * The class definition of the grouped results of a QueryBatch
+     */
+    public static class Results {
+
+        /**
+         * The grouped results, in the order the statements have been added
+         */
+        private final List<Object> results;
+
+        /**
+         * Private constructor to prevent external code to create an instance of the
+         * class
+         *
+         * @param results the grouped results
+         */
+        private Results(List<Object> results) {
+            this.results = results;
+        }
+
+        /**
+         * <strong>get</strong> retrieve the grouped result of a statement
+         *
+         * @param index  the position of the statement in the batch
+         * @param tClass the target class of the statement
+         * @param <T>    the type of the target class
+         * @return the list of data models that meet tClass
+         */
+        public <T extends DataModel> List<T> get(int index, Class<T> tClass) {
+            List<?> result = (List<?>) this.results.get(index);
+            for (Object dataModel : result) {
+                if (!tClass.isInstance(dataModel)) {
+                    throw new ClassCastException(String.format("Result %d contains %s, not %s", index,
+                            dataModel.getClass().getName(), tClass.getName()));
+                }
+            }
+            return (List<T>) result;
+        }
+
+        /**
+         * <strong>size</strong> retrieve the number of grouped results
+         *
+         * @return the number of statements in the batch
+         */
+        public int size() {
+            return this.results.size();
+        }
+    }
+}
@@ -1,25 +1,43 @@
 package com.github.m4tt30c91.spring.r2dbc.ace.engine;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.data.util.Pair;
 import org.springframework.r2dbc.core.DatabaseClient;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapperRegistry;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapperSet;
 import com.github.m4tt30c91.spring.r2dbc.ace.model.DataGroupModel;
 import com.github.m4tt30c91.spring.r2dbc.ace.model.DataModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.LazyDataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.TreeDataGroupModel;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 /**
  * A select processor to make up for the lack of relationship processors on the
@@ -27,10 +45,50 @@ import reactor.core.publisher.Mono;
  */
 public class QuerySelectorEngine {
 
+    /**
+     * The bytes separating the entries of a newline delimited JSON stream
+     */
+    private static final byte[] NEW_LINE = "\n".getBytes(StandardCharsets.UTF_8);
+    /**
+     * The bytes opening a JSON array
+     */
+    private static final byte[] ARRAY_OPENING = "[".getBytes(StandardCharsets.UTF_8);
+    /**
+     * The bytes separating the entries of a JSON array
+     */
+    private static final byte[] ARRAY_SEPARATOR = ",".getBytes(StandardCharsets.UTF_8);
+    /**
+     * The bytes closing a JSON array
+     */
+    private static final byte[] ARRAY_CLOSING = "]".getBytes(StandardCharsets.UTF_8);
+    /**
+     * The default number of streamed entries, and the maximum number of bases,
+     * whose lazy collectables are loaded by the same statement
+     */
+    public static final int DEFAULT_LAZY_WINDOW = 256;
+    /**
+     * The time to live of a value that is never evicted from Mono::cache
+     */
+    private static final Duration CACHE_FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
     /**
      * THe submitted DatabaseClient
      */
     private final DatabaseClient databaseClient;
+    /**
+     * The default Scheduler used to offload the grouping of large results, or
+     * null to process them on the thread that delivered the last record
+     */
+    private final Scheduler scheduler;
+    /**
+     * The default minimum number of records that triggers the offloading
+     */
+    private final int offloadThreshold;
+    /**
+     * The SELECT and FROM clauses generated by SelectBuilder::getSql, keyed by
+     * target class and ModelMapper classes
+     */
+    private final Map<String, Pair<String, String>> sqlCache;
 
     /**
      * Instantiate the QuerySelectorEngine with a DatabaseClient
@@ -38,7 +96,51 @@ public class QuerySelectorEngine {
      * @param databaseClient the DatabaseClient
      */
     public QuerySelectorEngine(final DatabaseClient databaseClient) {
+        this(databaseClient, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Instantiate the QuerySelectorEngine with a DatabaseClient and a Scheduler
+     * <p>
+     * Grouping and mapping a result is CPU bound and, by default, it runs on the
+     * thread that delivered the last record, which usually is the driver' event
+     * loop. Each result whose size is greater than or equal to offloadThreshold
+     * will be processed on scheduler instead, so that other connections served by
+     * the same event loop are not stalled.
+     * </p>
+     *
+     * @param databaseClient   the DatabaseClient
+     * @param scheduler        the Scheduler used to offload the processing of
+     *                         large results, e.g. Schedulers.parallel()
+     * @param offloadThreshold the minimum number of records that triggers the
+     *                         offloading
+     */
+    public QuerySelectorEngine(final DatabaseClient databaseClient, final Scheduler scheduler,
+            final int offloadThreshold) {
         this.databaseClient = databaseClient;
+        this.scheduler = scheduler;
+        this.offloadThreshold = offloadThreshold;
+        this.sqlCache = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * <strong>getScheduler</strong> get the Scheduler large results are offloaded
+     * to
+     *
+     * @return the Scheduler, null when offloading is disabled
+     */
+    protected Scheduler getScheduler() {
+        return this.scheduler;
+    }
+
+    /**
+     * <strong>getOffloadThreshold</strong> get the minimum number of records that
+     * triggers the offloading
+     *
+     * @return the offload threshold
+     */
+    protected int getOffloadThreshold() {
+        return this.offloadThreshold;
     }
 
     /**
@@ -49,8 +151,121 @@ public class QuerySelectorEngine {
      * @return a QueryProcessor to process the result
      */
     public QueryProcessor processSql(String sql) {
-        DatabaseClient.GenericExecuteSpec genericExecuteSpec = this.databaseClient.sql(sql);
-        return new QueryProcessor(genericExecuteSpec);
+        return new QueryProcessor(this, sql, null);
+    }
+
+    /**
+     * <strong>processSql</strong> submit a select sql statement generated from a
+     * ModelMapperSet, so that QueryProcessor::applyModelMappers can apply the same
+     * ModelMapperSet
+     *
+     * @param sql            the select sql statement
+     * @param modelMapperSet the ModelMapperSet the statement has been generated
+     *                       from
+     * @return a QueryProcessor to process the result
+     */
+    QueryProcessor processSql(String sql, ModelMapperSet modelMapperSet) {
+        return new QueryProcessor(this, sql, modelMapperSet);
+    }
+
+    /**
+     * <strong>select</strong> create a SelectBuilder generating the select sql
+     * statement read by a set of TableModelMappers
+     *
+     * @param tClass       the target class
+     * @param modelMappers the array of TableModelMappers
+     * @return a SelectBuilder bound to this QuerySelectorEngine
+     */
+    public SelectBuilder select(Class<? extends DataModel> tClass, ModelMapper... modelMappers) {
+        return this.select(tClass, ModelMapperSet.of(modelMappers));
+    }
+
+    /**
+     * <strong>select</strong> create a SelectBuilder generating the select sql
+     * statement read by a set of TableModelMappers
+     *
+     * @param tClass         the target class
+     * @param modelMapperSet the ModelMapperSet of TableModelMappers
+     * @return a SelectBuilder bound to this QuerySelectorEngine
+     */
+    public SelectBuilder select(Class<? extends DataModel> tClass, ModelMapperSet modelMapperSet) {
+        return new SelectBuilder(this, this.sqlCache, tClass, modelMapperSet);
+    }
+
+    /**
+     * <strong>batch</strong> create a QueryBatch to submit several select sql
+     * statements together
+     *
+     * @return a QueryBatch bound to this QuerySelectorEngine
+     */
+    public QueryBatch batch() {
+        return new QueryBatch(this.databaseClient);
+    }
+
+    /**
+     * <strong>execute</strong> submit a select sql statement and map each record
+     * to a set of DataModels
+     * <p>
+     * Extensions of the QuerySelectorEngine may override the method to choose,
+     * at subscription time, the DatabaseClient the statement is submitted to.
+     * </p>
+     *
+     * @param sql          the select sql statement
+     * @param bindings     the association between bind variables and values
+     * @param modelMappers the array of ModelMappers
+     * @return the records mapped to DataModels
+     */
+    protected Flux<Map<Class<? extends DataModel>, DataModel>> execute(String sql, Map<String, Object> bindings,
+            ModelMapper... modelMappers) {
+        return executeOn(this.databaseClient, sql, bindings, modelMappers);
+    }
+
+    /**
+     * <strong>executeOn</strong> submit a select sql statement to a DatabaseClient
+     * and map each record to a set of DataModels
+     *
+     * @param databaseClient the DatabaseClient
+     * @param sql            the select sql statement
+     * @param bindings       the association between bind variables and values
+     * @param modelMappers   the array of ModelMappers
+     * @return the records mapped to DataModels
+     */
+    protected static Flux<Map<Class<? extends DataModel>, DataModel>> executeOn(DatabaseClient databaseClient,
+            String sql, Map<String, Object> bindings, ModelMapper... modelMappers) {
+        DatabaseClient.GenericExecuteSpec genericExecuteSpec = databaseClient.sql(sql);
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            genericExecuteSpec = genericExecuteSpec.bind(binding.getKey(), binding.getValue());
+        }
+        return genericExecuteSpec
+                .map((row, rowMetadata) -> QueryProcessor.applyModelMappers(row, rowMetadata, modelMappers))
+                .all();
+    }
+
+    /**
+     * <strong>warmUp</strong> process the synthetic records registered in the
+     * ModelMapperRegistry, so that the first queries run at steady-state latency
+     * <p>
+     * Records are processed in memory through the same mapping and grouping
+     * pipeline used for the results of the select statements, no statement is
+     * submitted to the DatabaseClient.
+     * </p>
+     *
+     * @param modelMapperRegistry the ModelMapperRegistry
+     * @param iterations          the number of times each set of records is
+     *                            processed
+     */
+    public void warmUp(ModelMapperRegistry modelMapperRegistry, int iterations) {
+        modelMapperRegistry.getWarmUpRecords().forEach((tClass, records) -> {
+            ModelMapperSet modelMapperSet = modelMapperRegistry.get(tClass);
+            ModelMapper[] modelMappers = modelMapperSet.getModelMappers();
+            for (int i = 0; i < iterations; i++) {
+                Flux<Map<Class<? extends DataModel>, DataModel>> recordPublisher = Flux.fromIterable(records)
+                        .map(SyntheticRow::new)
+                        .map(row -> QueryProcessor.applyModelMappers(row, row.getMetadata(), modelMappers));
+                new QueryProcessor.QueryResultProcessor(this, recordPublisher, null, Integer.MAX_VALUE,
+                        modelMapperSet.getDataGroupModels()).selectMany(tClass).block();
+            }
+        });
     }
 
     /**
@@ -59,32 +274,114 @@ public class QuerySelectorEngine {
     public static class QueryProcessor {
 
         /**
-         * a DatabaseClient.GenericExecuteSpec instance
+         * The QuerySelectorEngine that created the QueryProcessor
+         */
+        private final QuerySelectorEngine engine;
+        /**
+         * The select sql statement
+         */
+        private final String sql;
+        /**
+         * The association between bind variables and values, in the binding order
+         */
+        private final Map<String, Object> bindings;
+        /**
+         * The ModelMapperSet the statement has been generated from, or null
+         */
+        private final ModelMapperSet modelMapperSet;
+        /**
+         * The Scheduler used to offload the processing of large results, or null
+         */
+        private Scheduler scheduler;
+        /**
+         * The minimum number of records that triggers the offloading
          */
-        private DatabaseClient.GenericExecuteSpec genericExecuteSpec;
+        private int offloadThreshold;
 
         /**
          * Private constructor to prevent external code to create an instance of the
          * class
          *
-         * @param genericExecuteSpec a DatabaseClient.GenericExecuteSpec instance
+         * @param engine         the QuerySelectorEngine that created the
+         *                       QueryProcessor
+         * @param sql            the select sql statement
+         * @param modelMapperSet the ModelMapperSet the statement has been generated
+         *                       from, or null
          */
-        private QueryProcessor(DatabaseClient.GenericExecuteSpec genericExecuteSpec) {
-            this.genericExecuteSpec = genericExecuteSpec;
+        private QueryProcessor(QuerySelectorEngine engine, String sql, ModelMapperSet modelMapperSet) {
+            this.engine = engine;
+            this.sql = sql;
+            this.modelMapperSet = modelMapperSet;
+            this.bindings = new LinkedHashMap<>();
+            this.scheduler = engine.scheduler;
+            this.offloadThreshold = engine.offloadThreshold;
         }
 
         /**
-         * <strong>bind</strong> wrap the DatabaseClient.GenericExecuteSpec.bind method
+         * <strong>bind</strong> collect a value to be bound through the
+         * DatabaseClient.GenericExecuteSpec.bind method once the statement is
+         * submitted
          *
          * @param name  the bind variable
          * @param value the value to replace
          * @return the same QueryProcessor to implement fluent programming
          */
         public QueryProcessor bind(String name, Object value) {
-            this.genericExecuteSpec = this.genericExecuteSpec.bind(name, value);
+            this.bindings.put(name, value);
             return this;
         }
 
+        /**
+         * <strong>getSql</strong> retrieve the select sql statement
+         *
+         * @return the select sql statement
+         */
+        public String getSql() {
+            return this.sql;
+        }
+
+        /**
+         * <strong>getBindings</strong> retrieve the values bound so far
+         *
+         * @return the unmodifiable association between bind variables and values
+         */
+        public Map<String, Object> getBindings() {
+            return Collections.unmodifiableMap(this.bindings);
+        }
+
+        /**
+         * <strong>offloadOn</strong> override, for this query only, the Scheduler
+         * used to group and map the result
+         *
+         * @param scheduler        the Scheduler used to offload the processing of
+         *                         large results, or null to disable the offloading
+         * @param offloadThreshold the minimum number of records that triggers the
+         *                         offloading
+         * @return the same QueryProcessor to implement fluent programming
+         */
+        public QueryProcessor offloadOn(Scheduler scheduler, int offloadThreshold) {
+            this.scheduler = scheduler;
+            this.offloadThreshold = offloadThreshold;
+            return this;
+        }
+
+        /**
+         * <strong>applyModelMappers</strong> submit each record to each instance of
+         * the ModelMapperSet the statement has been generated from by a
+         * SelectBuilder, so that the selected columns and the applied ModelMappers
+         * cannot drift apart
+         *
+         * @return a QueryResulProcessor to perform the required select operation
+         * @throws IllegalStateException if the statement has not been generated by a
+         *                               SelectBuilder
+         */
+        public QueryResultProcessor applyModelMappers() {
+            if (this.modelMapperSet == null) {
+                throw new IllegalStateException("The statement has not been generated by a SelectBuilder");
+            }
+            return this.applyModelMappers(this.modelMapperSet);
+        }
+
         /**
          * <strong>applyModelMappers</strong> collect the list of ModelMappers and
          * submit each record to each instance
@@ -93,11 +390,48 @@ public class QuerySelectorEngine {
          * @return a QueryResulProcessor to perform the required select operation
          */
         public QueryResultProcessor applyModelMappers(ModelMapper... modelMappers) {
-            Mono<List<Map<Class<? extends DataModel>, DataModel>>> resultPublisher = this.genericExecuteSpec
-                    .map((row, rowMetadata) -> this.applyModelMappers(row,
-                            rowMetadata, modelMappers))
-                    .all().collectList();
-            return new QueryResultProcessor(resultPublisher, modelMappers);
+            return this.applyModelMappers(ModelMapperSet.of(modelMappers));
+        }
+
+        /**
+         * <strong>applyModelMappers</strong> submit each record to each instance of a
+         * precompiled ModelMapperSet, e.g. one retrieved from a ModelMapperRegistry
+         *
+         * @param modelMapperSet the ModelMapperSet
+         * @return a QueryResulProcessor to perform the required select operation
+         */
+        public QueryResultProcessor applyModelMappers(ModelMapperSet modelMapperSet) {
+            Map<String, Object> bindings = new LinkedHashMap<>(this.bindings);
+            return this.applyModelMappers(this.engine.execute(this.sql, bindings, modelMapperSet.getModelMappers()),
+                    modelMapperSet);
+        }
+
+        /**
+         * <strong>applyModelMappers</strong> submit each record to each instance of a
+         * ModelMapperSet, executing the statement through the given DatabaseClient
+         *
+         * @param databaseClient the DatabaseClient
+         * @param modelMapperSet the ModelMapperSet
+         * @return a QueryResulProcessor to perform the required select operation
+         */
+        QueryResultProcessor applyModelMappers(DatabaseClient databaseClient, ModelMapperSet modelMapperSet) {
+            Map<String, Object> bindings = new LinkedHashMap<>(this.bindings);
+            return this.applyModelMappers(executeOn(databaseClient, this.sql, bindings, modelMapperSet.getModelMappers()),
+                    modelMapperSet);
+        }
+
+        /**
+         * <strong>applyModelMappers</strong> create the QueryResultProcessor for
+         * records already mapped by the ModelMapperSet
+         *
+         * @param recordPublisher the records mapped to DataModels
+         * @param modelMapperSet  the ModelMapperSet
+         * @return a QueryResulProcessor to perform the required select operation
+         */
+        QueryResultProcessor applyModelMappers(Flux<Map<Class<? extends DataModel>, DataModel>> recordPublisher,
+                ModelMapperSet modelMapperSet) {
+            return new QueryResultProcessor(this.engine, recordPublisher, this.scheduler, this.offloadThreshold,
+                    modelMapperSet.getDataGroupModels());
         }
 
         /**
@@ -110,7 +444,7 @@ public class QuerySelectorEngine {
          * @return a mapping between DataModel classes and their instances, based on the
          *         record
          */
-        private Map<Class<? extends DataModel>, DataModel> applyModelMappers(Row row,
+        static Map<Class<? extends DataModel>, DataModel> applyModelMappers(Row row,
                 RowMetadata rowMetadata, ModelMapper... modelMappers) {
             return Arrays.stream(modelMappers).map(modelMapper -> modelMapper.map(row, rowMetadata))
                     .filter(Objects::nonNull)
@@ -122,6 +456,14 @@ public class QuerySelectorEngine {
          */
         public static class QueryResultProcessor {
 
+            /**
+             * The QuerySelectorEngine used to load lazy collectables
+             */
+            private final QuerySelectorEngine engine;
+            /**
+             * The records processed from some select statement
+             */
+            private final Flux<Map<Class<? extends DataModel>, DataModel>> recordPublisher;
             /**
              * The result processed from some select statement
              */
@@ -130,40 +472,50 @@ public class QuerySelectorEngine {
              * The list of DataGroupModels derived by the set of ModelMappers
              */
             private final List<DataGroupModel> dataGroupModels;
-
             /**
-             * The mapping between Bases and Collectables
+             * The list of LazyDataGroupModels derived by the set of ModelMappers
              */
-            private final Bases2Collectables bases2Collectables;
+            private final List<LazyDataGroupModel> lazyDataGroupModels;
             /**
-             * The association between each DataGroupModel and its own Base
+             * The Scheduler used to offload the processing of large results, or null
              */
-            private final List<Pair<DataGroupModel, DataModel>> group2Base;
+            private final Scheduler scheduler;
             /**
-             * The association between each DataModel and its list of unique ids
+             * The minimum number of records that triggers the offloading
              */
-            private final Map<Class<? extends DataModel>, Set<String>> distinctDataModels;
+            private final int offloadThreshold;
 
             /**
              * Private constructor to prevent external code to create an instance of the
              * class
              *
-             * @param resultPublisher the result processed from some select statement
-             * @param modelMappers    the array of ModelMappers to map each record to a set
-             *                        of
-             *                        DataModel
+             * @param engine           the QuerySelectorEngine used to load lazy
+             *                         collectables
+             * @param recordPublisher  the records processed from some select statement
+             * @param scheduler        the Scheduler used to offload the processing of
+             *                         large results, or null
+             * @param offloadThreshold the minimum number of records that triggers the
+             *                         offloading
+             * @param dataGroupModels  the list of DataGroupModels derived by the set of
+             *                         ModelMappers
              */
-            private QueryResultProcessor(
-                    Mono<List<Map<Class<? extends DataModel>, DataModel>>> resultPublisher,
-                    ModelMapper... modelMappers) {
-                this.resultPublisher = resultPublisher;
+            private QueryResultProcessor(QuerySelectorEngine engine,
+                    Flux<Map<Class<? extends DataModel>, DataModel>> recordPublisher,
+                    Scheduler scheduler, int offloadThreshold, List<DataGroupModel> dataGroupModels) {
+                this.engine = engine;
+                this.recordPublisher = recordPublisher;
+                this.resultPublisher = recordPublisher.collectList();
+                this.scheduler = scheduler;
+                this.offloadThreshold = offloadThreshold;
                 this.dataGroupModels = new LinkedList<>();
-                this.bases2Collectables = new Bases2Collectables();
-                this.group2Base = new LinkedList<>();
-                this.distinctDataModels = new HashMap<>();
-                Arrays.stream(modelMappers).map(ModelMapper::getDataGroupModels)
-                        .filter(Objects::nonNull).filter(list -> !list.isEmpty())
-                        .collect(Collectors.toList()).forEach(this.dataGroupModels::addAll);
+                this.lazyDataGroupModels = new LinkedList<>();
+                for (DataGroupModel dataGroupModel : dataGroupModels) {
+                    if (dataGroupModel instanceof LazyDataGroupModel) {
+                        this.lazyDataGroupModels.add((LazyDataGroupModel) dataGroupModel);
+                    } else if (!(dataGroupModel instanceof TreeDataGroupModel)) { // Trees are assembled by selectTree
+                        this.dataGroupModels.add(dataGroupModel);
+                    }
+                }
             }
 
             /**
@@ -185,10 +537,11 @@ public class QuerySelectorEngine {
             public <T extends DataModel> Mono<T> selectOne(Class<T> tClass) {
                 return this.resultPublisher
                         .filter(list -> !list.isEmpty())
-                        .map(list -> {
-                            this.collectAndGroup(list);
-                            return (T) list.get(0).get(tClass);
-                        });
+                        .flatMap(list -> this.process(list, records -> {
+                            new RecordGrouper(this.dataGroupModels).collectAndGroup(records);
+                            this.bindLazyCollectables(records);
+                            return (T) records.get(0).get(tClass);
+                        }));
             }
 
             /**
@@ -202,297 +555,517 @@ public class QuerySelectorEngine {
             public <T extends DataModel> Mono<List<T>> selectMany(Class<T> tClass) {
                 return this.resultPublisher
                         .filter(list -> !list.isEmpty())
-                        .map(list -> {
-                            this.collectAndGroup(list);
-                            return this.selectDistinct(list, tClass);
-                        })
+                        .flatMap(list -> this.process(list, records -> {
+                            new RecordGrouper(this.dataGroupModels).collectAndGroup(records);
+                            this.bindLazyCollectables(records);
+                            return this.selectDistinct(records, tClass);
+                        }))
                         .switchIfEmpty(Mono.just(Collections.emptyList()));
             }
 
             /**
-             * <strong>selectDistinct</strong> select all the distinct data models for
-             * tClass in the records list
+             * <strong>selectTree</strong> select the roots of the hierarchy defined by a
+             * TreeDataGroupModel, each one holding its descendants
+             * <p>
+             * Each record is expected to hold a single node, e.g. a record of a
+             * <em>WITH RECURSIVE</em> select statement over a parent_id adjacency list.
+             * The nodes are indexed by DataModel::uniqueIdentifier, then each node is
+             * appended to the collectables of its parent, so that the hierarchy is
+             * assembled in linear time whatever the order of the records. The
+             * non-recursive DataGroupModels are applied to the records beforehand. A node
+             * whose parent is not in the records is considered a root, and the children
+             * of each node keep the order of the records. The nodes that cannot be reached
+             * from any root, i.e. the nodes of a parent cycle and their descendants, are
+             * rejected, since they would otherwise be silently dropped.
+             * </p>
+             *
+             * @param treeDataGroupModel the association between each node and its
+             *                           children
+             * @param <T>                the type of the node class
+             * @return the list of roots, or an IllegalStateException if the parents of
+             *         some nodes define a cycle
+             */
+            public <T extends DataModel> Mono<List<T>> selectTree(TreeDataGroupModel<T> treeDataGroupModel) {
+                Class<T> tClass = treeDataGroupModel.base();
+                return this.resultPublisher
+                        .filter(list -> !list.isEmpty())
+                        .flatMap(list -> this.process(list, records -> {
+                            new RecordGrouper(this.dataGroupModels).collectAndGroup(records);
+                            this.bindLazyCollectables(records);
+
+                            // Index the distinct nodes
+                            Map<String, T> nodes = new LinkedHashMap<>();
+                            for (Map<Class<? extends DataModel>, DataModel> record : records) {
+                                T node = (T) record.get(tClass);
+                                if (node != null)
+                                    nodes.putIfAbsent(node.uniqueIdentifier(), node);
+                            }
+
+                            // Append each node to its parent
+                            List<T> roots = new LinkedList<>();
+                            Map<String, List<T>> children = new HashMap<>();
+                            for (T node : nodes.values()) {
+                                String parentId = treeDataGroupModel.parentIdentifier(node);
+                                T parent = parentId == null ? null : nodes.get(parentId);
+                                if (parent == null) {
+                                    roots.add(node);
+                                    continue;
+                                }
+                                children.computeIfAbsent(parentId, id -> {
+                                    List<T> collectables = new LinkedList<>();
+                                    treeDataGroupModel.setCollectables(parent, collectables);
+                                    return collectables;
+                                }).add(node);
+                            }
+
+                            // Visit the nodes reachable from the roots, the others belong to a cycle
+                            Set<String> visited = new HashSet<>();
+                            Deque<T> pending = new LinkedList<>(roots);
+                            while (!pending.isEmpty()) {
+                                String id = pending.pop().uniqueIdentifier();
+                                visited.add(id);
+                                pending.addAll(children.getOrDefault(id, Collections.emptyList()));
+                            }
+                            if (visited.size() < nodes.size()) {
+                                Set<String> unreachable = new LinkedHashSet<>(nodes.keySet());
+                                unreachable.removeAll(visited);
+                                throw new IllegalStateException(String.format(
+                                        "The parents of the %s nodes %s define a cycle", tClass.getSimpleName(),
+                                        unreachable));
+                            }
+                            return roots;
+                        }))
+                        .switchIfEmpty(Mono.just(Collections.emptyList()));
+            }
+
+            /**
+             * <strong>streamMany</strong> stream each entry for tClass as soon as all of
+             * its records have been received
+             * <p>
+             * Please note that the records must be ordered by the unique identifier of
+             * tClass, e.g. through an ORDER BY clause on its key, since an entry is
+             * considered complete as soon as a record for a different entry is received.
+             * Each entry is grouped on its own, so that only the records of the entry being
+             * received are retained. When LazyDataGroupModels apply, the entries are
+             * emitted in windows of DEFAULT_LAZY_WINDOW, so that the lazy collectables of
+             * a whole window are loaded by a single statement.
+             * </p>
              *
-             * @param list   the records processed by a statement
              * @param tClass the target class to be returned from the result processing
              * @param <T>    the type of the target class
-             * @return the list of distinct data models
+             * @return the data models that meet tClass, in the order of the records
              */
-            private <T extends DataModel> List<T> selectDistinct(
-                    List<Map<Class<? extends DataModel>, DataModel>> list, Class<T> tClass) {
-                Set<String> ids = new HashSet<>();
-                List<T> dataModels = new LinkedList<>();
-                for (Map<Class<? extends DataModel>, DataModel> map : list) {
-                    T entry = (T) map.get(tClass);
-                    String id = entry.uniqueIdentifier();
-                    if (!ids.contains(id)) {
-                        dataModels.add(entry);
-                        ids.add(id);
-                    }
+            public <T extends DataModel> Flux<T> streamMany(Class<T> tClass) {
+                return this.streamMany(tClass, DEFAULT_LAZY_WINDOW);
+            }
+
+            /**
+             * <strong>streamMany</strong> stream each entry for tClass as soon as all of
+             * its records have been received, loading the lazy collectables of lazyWindow
+             * entries at once
+             * <p>
+             * The same ordering requirement of streamMany(Class) applies. When
+             * LazyDataGroupModels apply, the entries are retained until lazyWindow of
+             * them have been received, or the records complete, and the lazy collectables
+             * of the whole window are then loaded by a single statement, the first time
+             * any of their handles is subscribed. Without LazyDataGroupModels, each entry
+             * is emitted as soon as it is complete.
+             * </p>
+             * <p>
+             * If a Scheduler is configured, the records are grouped, and the entries are
+             * emitted, on the Scheduler rather than on the thread of the driver. The
+             * offload threshold does not apply, since the size of the result is not
+             * known while streaming.
+             * </p>
+             *
+             * @param tClass     the target class to be returned from the result
+             *                   processing
+             * @param lazyWindow the number of entries whose lazy collectables are loaded
+             *                   by the same statement
+             * @param <T>        the type of the target class
+             * @return the data models that meet tClass, in the order of the records
+             * @throws IllegalArgumentException if lazyWindow is less than 1
+             */
+            public <T extends DataModel> Flux<T> streamMany(Class<T> tClass, int lazyWindow) {
+                if (lazyWindow < 1) {
+                    throw new IllegalArgumentException("lazyWindow must be greater than 0");
                 }
-                return dataModels;
+                Flux<List<Map<Class<? extends DataModel>, DataModel>>> entries = this.streamedRecords()
+                        .filter(record -> record.containsKey(tClass))
+                        .bufferUntilChanged(record -> record.get(tClass).uniqueIdentifier())
+                        .map(records -> {
+                            new RecordGrouper(this.dataGroupModels).collectAndGroup(records);
+                            return records;
+                        });
+
+                // Guard point: no lazy collectable to load
+                if (this.lazyDataGroupModels.isEmpty()) {
+                    return entries.map(records -> (T) records.get(0).get(tClass));
+                }
+
+                return entries
+                        .buffer(lazyWindow)
+                        .flatMapIterable(window -> {
+                            List<Map<Class<? extends DataModel>, DataModel>> records = new LinkedList<>();
+                            List<T> dataModels = new LinkedList<>();
+                            for (List<Map<Class<? extends DataModel>, DataModel>> entry : window) {
+                                records.addAll(entry);
+                                dataModels.add((T) entry.get(0).get(tClass));
+                            }
+                            this.bindLazyCollectables(records);
+                            return dataModels;
+                        });
+            }
+
+            /**
+             * <strong>reduceMany</strong> fold the collectables of each base into a
+             * summary while the records are received
+             * <p>
+             * Unlike selectMany, no collection is built and no DataGroupModel is applied:
+             * each distinct collectable of a base is submitted to the Collector as soon as
+             * its record is received, so that only the bases, their accumulators and the
+             * unique identifiers of their collectables are retained. Bases without
+             * collectables are summarized by the Collector applied to no element.
+             * </p>
+             * <p>
+             * Please note that the unique identifiers of the collectables of every base
+             * are retained until the result completes, so that the memory grows with the
+             * number of distinct base-collectable pairs. When the records are ordered by
+             * the unique identifier of bClass, streamReduceMany retains the unique
+             * identifiers of the collectables of the current base only.
+             * </p>
+             *
+             * @param bClass         the base class
+             * @param dataGroupModel the association between the base and the collectables
+             *                       to fold
+             * @param collector      the Collector folding the collectables of each base,
+             *                       e.g. Collectors.counting()
+             * @param <B>            the type of the base class
+             * @param <C>            the type of the collectable class
+             * @param <A>            the type of the accumulator
+             * @param <R>            the type of the summary
+             * @return the association between each base and its summary, in the order
+             *         of the records
+             */
+            public <B extends DataModel, C extends DataModel, A, R> Mono<List<Pair<B, R>>> reduceMany(
+                    Class<B> bClass, DataGroupModel<B, C> dataGroupModel, Collector<? super C, A, R> collector) {
+                Class<C> cClass = dataGroupModel.collectable();
+                return this.recordPublisher
+                        .collect(LinkedHashMap<String, Reduction<B, A>>::new, (reductions, record) -> {
+
+                            // Guard point: no base to reduce
+                            B base = (B) record.get(bClass);
+                            if (base == null)
+                                return;
+
+                            // Fold the collectable if not already folded for the same base
+                            reductions.computeIfAbsent(base.uniqueIdentifier(),
+                                    id -> new Reduction<>(collector.supplier().get()))
+                                    .fold(base, (C) record.get(cClass), collector);
+                        })
+                        .map(reductions -> reductions.values().stream()
+                                .map(reduction -> Pair.of(reduction.base,
+                                        collector.finisher().apply(reduction.accumulator)))
+                                .collect(Collectors.toList()));
+            }
+
+            /**
+             * <strong>streamReduceMany</strong> fold the collectables of each base into a
+             * summary, streaming each summary as soon as all of the records of its base
+             * have been received
+             * <p>
+             * The same ordering requirement of streamMany applies to bClass: a base is
+             * considered complete as soon as a record for a different base is received,
+             * so that the unique identifiers of the collectables already folded are
+             * dropped and only those of the current base are retained.
+             * </p>
+             *
+             * @param bClass         the base class
+             * @param dataGroupModel the association between the base and the collectables
+             *                       to fold
+             * @param collector      the Collector folding the collectables of each base,
+             *                       e.g. Collectors.counting()
+             * @param <B>            the type of the base class
+             * @param <C>            the type of the collectable class
+             * @param <A>            the type of the accumulator
+             * @param <R>            the type of the summary
+             * @return the association between each base and its summary, in the order
+             *         of the records
+             */
+            public <B extends DataModel, C extends DataModel, A, R> Flux<Pair<B, R>> streamReduceMany(
+                    Class<B> bClass, DataGroupModel<B, C> dataGroupModel, Collector<? super C, A, R> collector) {
+                Class<C> cClass = dataGroupModel.collectable();
+                return this.streamedRecords()
+                        .filter(record -> record.containsKey(bClass))
+                        .windowUntilChanged(record -> record.get(bClass).uniqueIdentifier())
+                        .concatMap(records -> records.collect(() -> new Reduction<B, A>(collector.supplier().get()),
+                                (reduction, record) -> reduction.fold((B) record.get(bClass), (C) record.get(cClass),
+                                        collector)))
+                        .map(reduction -> Pair.of(reduction.base, collector.finisher().apply(reduction.accumulator)));
+            }
+
+            /**
+             * <strong>writeNdjson</strong> serialize each entry for tClass as a line of
+             * newline delimited JSON as soon as all of its records have been received
+             * <p>
+             * The same ordering requirement and the same loading of the lazy collectables
+             * of streamMany apply. Each entry is released as soon as it has been written to
+             * its DataBuffer.
+             * </p>
+             *
+             * @param tClass            the target class to be returned from the result
+             *                          processing
+             * @param objectMapper      the ObjectMapper used to serialize each entry
+             * @param dataBufferFactory the DataBufferFactory used to allocate the buffers
+             * @param <T>               the type of the target class
+             * @return a DataBuffer for each entry
+             */
+            public <T extends DataModel> Flux<DataBuffer> writeNdjson(Class<T> tClass, ObjectMapper objectMapper,
+                    DataBufferFactory dataBufferFactory) {
+                return this.streamMany(tClass)
+                        .handle((dataModel, sink) -> {
+                            try {
+                                sink.next(write(dataBufferFactory, null, objectMapper, dataModel, NEW_LINE));
+                            } catch (IOException e) {
+                                sink.error(e);
+                            }
+                        });
+            }
+
+            /**
+             * <strong>writeJsonArray</strong> serialize the entries for tClass as a JSON
+             * array, writing each entry as soon as all of its records have been received
+             * <p>
+             * The same ordering requirement and the same loading of the lazy collectables
+             * of streamMany apply. Each entry is released as soon as it has been written to
+             * its DataBuffer.
+             * </p>
+             *
+             * @param tClass            the target class to be returned from the result
+             *                          processing
+             * @param objectMapper      the ObjectMapper used to serialize each entry
+             * @param dataBufferFactory the DataBufferFactory used to allocate the buffers
+             * @param <T>               the type of the target class
+             * @return a DataBuffer for each entry, preceded by the array opening and
+             *         followed by the array closing
+             */
+            public <T extends DataModel> Flux<DataBuffer> writeJsonArray(Class<T> tClass, ObjectMapper objectMapper,
+                    DataBufferFactory dataBufferFactory) {
+                Flux<DataBuffer> entries = this.streamMany(tClass)
+                        .index()
+                        .handle((entry, sink) -> {
+                            byte[] separator = entry.getT1() == 0 ? ARRAY_OPENING : ARRAY_SEPARATOR;
+                            try {
+                                sink.next(write(dataBufferFactory, separator, objectMapper, entry.getT2(), null));
+                            } catch (IOException e) {
+                                sink.error(e);
+                            }
+                        });
+                return entries
+                        .switchIfEmpty(Mono.fromSupplier(() -> dataBufferFactory.wrap(ARRAY_OPENING)))
+                        .concatWith(Mono.fromSupplier(() -> dataBufferFactory.wrap(ARRAY_CLOSING)));
             }
 
             /**
-             * <strong>collectAndGroup</strong> collect all the records and apply each group
-             * function
+             * <strong>write</strong> serialize a data model to a new DataBuffer
+             *
+             * @param dataBufferFactory the DataBufferFactory used to allocate the buffer
+             * @param prefix            the bytes to write before the data model, or null
+             * @param objectMapper      the ObjectMapper used to serialize the data model
+             * @param dataModel         the data model
+             * @param suffix            the bytes to write after the data model, or null
+             * @return the DataBuffer
+             * @throws IOException if the data model cannot be serialized
+             */
+            private static DataBuffer write(DataBufferFactory dataBufferFactory, byte[] prefix,
+                    ObjectMapper objectMapper, DataModel dataModel, byte[] suffix) throws IOException {
+                DataBuffer dataBuffer = dataBufferFactory.allocateBuffer();
+                try {
+                    if (prefix != null)
+                        dataBuffer.write(prefix);
+                    objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                            .writeValue(dataBuffer.asOutputStream(), dataModel);
+                    if (suffix != null)
+                        dataBuffer.write(suffix);
+                    return dataBuffer;
+                } catch (IOException | RuntimeException e) {
+                    DataBufferUtils.release(dataBuffer);
+                    throw e;
+                }
+            }
+
+            /**
+             * <strong>streamedRecords</strong> retrieve the records to be processed as
+             * soon as they are received, published on the Scheduler if configured
+             *
+             * @return the records processed from some select statement
+             */
+            private Flux<Map<Class<? extends DataModel>, DataModel>> streamedRecords() {
+                return this.scheduler != null ? this.recordPublisher.publishOn(this.scheduler) : this.recordPublisher;
+            }
+
+            /**
+             * <strong>process</strong> apply the processing function to the records,
+             * offloading it to the Scheduler if the records are at least as many as the
+             * offload threshold
+             *
+             * @param list     the records processed by a statement
+             * @param function the processing function
+             * @param <R>      the type of the processing result
+             * @return the processing result
+             */
+            private <R> Mono<R> process(List<Map<Class<? extends DataModel>, DataModel>> list,
+                    Function<List<Map<Class<? extends DataModel>, DataModel>>, R> function) {
+                Mono<R> processing = Mono.fromSupplier(() -> function.apply(list));
+                boolean offload = this.scheduler != null && list.size() >= this.offloadThreshold;
+                return offload ? processing.subscribeOn(this.scheduler) : processing;
+            }
+
+            /**
+             * <strong>bindLazyCollectables</strong> set to each base of each
+             * LazyDataGroupModel the deferred handle to its collectables
+             * <p>
+             * The bases found in the same records are split in chunks of
+             * DEFAULT_LAZY_WINDOW, so that the IN clause of a statement never exceeds the
+             * bind parameters limit of the driver. The handles of the bases of the same
+             * chunk share a single load, so that the collectables of all of them are
+             * selected once, the first time any handle is subscribed. A failed load is
+             * not retained, so that subscribing a handle again retries it.
+             * </p>
              *
              * @param list the records processed by a statement
              */
-            private void collectAndGroup(List<Map<Class<? extends DataModel>, DataModel>> list) {
+            private void bindLazyCollectables(List<Map<Class<? extends DataModel>, DataModel>> list) {
+                for (LazyDataGroupModel lazyDataGroupModel : this.lazyDataGroupModels) {
 
-                // Collect and group each record for each model grouping
-                for (Map<Class<? extends DataModel>, DataModel> record : list) {
-                    for (DataGroupModel dataGroupModel : this.dataGroupModels) {
-                        this.collectRecord(dataGroupModel, record);
+                    // Collect the distinct bases
+                    Map<String, DataModel> bases = new LinkedHashMap<>();
+                    for (Map<Class<? extends DataModel>, DataModel> record : list) {
+                        DataModel base = record.get(lazyDataGroupModel.base());
+                        if (base != null)
+                            bases.putIfAbsent(base.uniqueIdentifier(), base);
                     }
-                }
 
-                // Distinct collections
-                for (Pair<DataGroupModel, DataModel> pair : this.group2Base) {
-                    this.distinctCollection(pair);
+                    // Bind the bases chunk by chunk
+                    List<DataModel> chunk = new LinkedList<>();
+                    for (DataModel base : bases.values()) {
+                        chunk.add(base);
+                        if (chunk.size() == DEFAULT_LAZY_WINDOW) {
+                            this.bindLazyCollectables(lazyDataGroupModel, chunk);
+                            chunk = new LinkedList<>();
+                        }
+                    }
+                    if (!chunk.isEmpty())
+                        this.bindLazyCollectables(lazyDataGroupModel, chunk);
                 }
             }
 
             /**
-             * <strong>collectRecord</strong> collect, if any, the association between the
-             * base and the collectable for that record
+             * <strong>bindLazyCollectables</strong> set to each base of a chunk the
+             * deferred handle to its collectables, loaded by a single statement
              *
-             * @param dataGroupModel the association between a Base and a Collectable
-             * @param record         a representation of a single record in terms of
-             *                       DataModels
+             * @param lazyDataGroupModel the association between the bases and their
+             *                           collectables
+             * @param bases              the distinct bases of the chunk
              */
-            private void collectRecord(DataGroupModel dataGroupModel,
-                    Map<Class<? extends DataModel>, DataModel> record) {
-
-                // Collect base and collectable classes
-                Class<? extends DataModel> baseClass = dataGroupModel.base();
-
-                // Guard point: no record to collect
-                boolean isBaseInRecord = record.containsKey(dataGroupModel.base());
-                boolean isCollectableInRecord = isBaseInRecord && record.containsKey(dataGroupModel.collectable());
-                if (!isCollectableInRecord)
-                    return;
-
-                // Collect data models
-                DataModel base = record.get(dataGroupModel.base());
-                DataModel collectable = record.get(dataGroupModel.collectable());
-                String id = base.uniqueIdentifier();
-
-                // Add the collectable and, if the process generates a new collection, collect
-                // the association
-                Pair<Boolean, List<DataModel>> collectables = this.bases2Collectables.addCollectable(baseClass, id,
-                        collectable);
-                if (!collectables.getFirst()) {
-                    dataGroupModel.setCollectables(base, collectables.getSecond());
-                    this.group2Base.add(Pair.of(dataGroupModel, base));
-                }
+            private void bindLazyCollectables(LazyDataGroupModel lazyDataGroupModel, List<DataModel> bases) {
+
+                // Load the collectables of all the bases at once, grouped by base key, the
+                // statement being prepared again if a failed load is retried
+                List<Object> keys = bases.stream().map(lazyDataGroupModel::baseKey)
+                        .distinct().collect(Collectors.toList());
+                Mono<Map<Object, List<DataModel>>> collectables = Mono.defer(() -> this.engine
+                        .processSql(lazyDataGroupModel.sql())
+                        .bind(LazyDataGroupModel.KEYS, keys)
+                        .applyModelMappers(lazyDataGroupModel.getModelMappers())
+                        .selectMany(lazyDataGroupModel.collectable()))
+                        .map(dataModels -> ((List<DataModel>) dataModels).stream()
+                                .collect(Collectors.groupingBy(lazyDataGroupModel::collectableKey,
+                                        LinkedHashMap::new, Collectors.toList())))
+                        .cache(map -> CACHE_FOREVER, error -> Duration.ZERO, () -> Duration.ZERO);
 
+                // Bind each base to its own collectables
+                for (DataModel base : bases) {
+                    Object key = lazyDataGroupModel.baseKey(base);
+                    Mono<List<DataModel>> baseCollectables = collectables
+                            .map(map -> map.getOrDefault(key, Collections.emptyList()))
+                            .doOnNext(dataModels -> lazyDataGroupModel.setCollectables(base, dataModels));
+                    lazyDataGroupModel.setLazyCollectables(base, baseCollectables);
+                }
             }
 
             /**
-             * <strong>distinctCollection</strong> distinct all data in all collectables and
-             * rewrite on base
+             * <strong>selectDistinct</strong> select all the distinct data models for
+             * tClass in the records list
              *
-             * @param pair the association between a ModelGrouping and a DataModel
+             * @param list   the records processed by a statement
+             * @param tClass the target class to be returned from the result processing
+             * @param <T>    the type of the target class
+             * @return the list of distinct data models
              */
-            private void distinctCollection(Pair<DataGroupModel, DataModel> pair) {
-
-                // Get data from pair
-                DataGroupModel dataGroupModel = pair.getFirst();
-                DataModel base = pair.getSecond();
-                Class<? extends DataModel> baseClass = base.getClass();
-                String id = base.uniqueIdentifier();
-
-                // Guard point: data already processed
-                boolean containsClass = this.distinctDataModels.containsKey(baseClass);
-                boolean skipRecord = containsClass && this.distinctDataModels.get(baseClass).contains(id);
-                if (skipRecord)
-                    return;
-
-                // Get collectable and distinct
-                List<DataModel> collectables = dataGroupModel.getCollectables(base);
-                List<DataModel> distinctCollectables = collectables.stream()
-                        .collect(Collectors.collectingAndThen(Collectors.toCollection(
-                                () -> new TreeSet<>(Comparator.comparing(DataModel::uniqueIdentifier))),
-                                LinkedList::new));
-
-                // Set collectable for base
-                dataGroupModel.setCollectables(base, distinctCollectables);
-
-                if (containsClass) { // Some data model for the same base class has already been
-                                     // collected
-                    this.distinctDataModels.get(baseClass).add(id);
-                } else { // No data model for the same base class has been collected yet
-                    Set<String> set = new HashSet<>();
-                    set.add(id);
-                    this.distinctDataModels.put(baseClass, set);
+            private <T extends DataModel> List<T> selectDistinct(
+                    List<Map<Class<? extends DataModel>, DataModel>> list, Class<T> tClass) {
+                Set<String> ids = new HashSet<>();
+                List<T> dataModels = new LinkedList<>();
+                for (Map<Class<? extends DataModel>, DataModel> map : list) {
+                    T entry = (T) map.get(tClass);
+                    String id = entry.uniqueIdentifier();
+                    if (!ids.contains(id)) {
+                        dataModels.add(entry);
+                        ids.add(id);
+                    }
                 }
+                return dataModels;
             }
 
             /**
-             * The class definition to map Bases to Collectables
+             * The class definition of the accumulation state of a base
+             *
+             * @param <B> the type of the base class
+             * @param <A> the type of the accumulator
              */
-            private static class Bases2Collectables {
+            private static final class Reduction<B, A> {
 
                 /**
-                 * The internal association between a base class and its ids
+                 * The base, set by the first record folded
                  */
-                private final Map<Class<? extends DataModel>, BasesId2Collectables> map;
-
+                private B base;
                 /**
-                 * Empty constructor to initialize the map
+                 * The accumulator of the base
                  */
-                public Bases2Collectables() {
-                    this.map = new HashMap<>();
-                }
+                private final A accumulator;
+                /**
+                 * The unique identifiers of the collectables already folded
+                 */
+                private final Set<String> ids;
 
                 /**
-                 * <strong>addCollectable</strong> associate a Base to a Collectable
-                 * <p>
-                 * If the baseClass is not yet present, a new entry in the map will be stored,
-                 * and it will begin the delegation process to create the list of collectables
-                 * starting from collectable.
-                 * </p>
-                 * <p>
-                 * If the baseClass is present, the entry will be resumed and the delegation
-                 * process will try to add collectable to an already existing collection if
-                 * present, or create a new one if no collection has already been created.
-                 * </p>
+                 * Instantiate the Reduction with the accumulator of the base
                  *
-                 * @param baseClass   the base class
-                 * @param id          the base id
-                 * @param collectable the collectable element
-                 * @return A pair of elements where:
-                 *         <ul>
-                 *         <li>pair.left is a boolean that takes true if the list of
-                 *         collectables was already build, false instead</li>
-                 *         <li>pair.right is the resulting list of collectables</li>
-                 *         </ul>
+                 * @param accumulator the accumulator of the base
                  */
-                public Pair<Boolean, List<DataModel>> addCollectable(
-                        Class<? extends DataModel> baseClass, String id, DataModel collectable) {
-                    BasesId2Collectables basesId2Collectables;
-                    if (this.map.containsKey(baseClass)) {
-                        basesId2Collectables = this.map.get(baseClass);
-                    } else {
-                        basesId2Collectables = new BasesId2Collectables();
-                        this.map.put(baseClass, basesId2Collectables);
-                    }
-                    return basesId2Collectables.addCollectable(id, collectable);
+                private Reduction(A accumulator) {
+                    this.accumulator = accumulator;
+                    this.ids = new HashSet<>();
                 }
 
                 /**
-                 * The class definition to map Base Ids to Collectables
+                 * <strong>fold</strong> submit a collectable of the base to the Collector,
+                 * unless already folded
+                 *
+                 * @param base        the base of the record
+                 * @param collectable the collectable of the record, or null
+                 * @param collector   the Collector folding the collectables
+                 * @param <C>         the type of the collectable class
                  */
-                private static final class BasesId2Collectables {
-
-                    /**
-                     * The internal association between a base id and its collectables
-                     */
-                    private final Map<String, Collectable2Collection> map;
-
-                    /**
-                     * Empty constructor to initialize the map
-                     */
-                    public BasesId2Collectables() {
-                        this.map = new HashMap<>();
-                    }
-
-                    /**
-                     * <strong>addCollectable</strong> associate the base id to a collectable
-                     * <p>
-                     * If the id is not yet present, a new entry in the map will be stored, and it
-                     * will begin the delegation process to create the list of collectables starting
-                     * from collectable.
-                     * </p>
-                     * <p>
-                     * If the id is present, the entry will be resumed and the delegation process
-                     * will try to add collectable to an already existing collection if present, or
-                     * create a new one if no collection has already been created.
-                     * </p>
-                     *
-                     * @param id          the base id
-                     * @param collectable the collectable
-                     * @return A pair of elements where:
-                     *         <ul>
-                     *         <li>pair.left is a boolean that takes true if the list of
-                     *         collectables was already build, false instead</li>
-                     *         <li>pair.right is the resulting list of collectables</li>
-                     *         </ul>
-                     */
-                    public Pair<Boolean, List<DataModel>> addCollectable(String id,
-                            DataModel collectable) {
-                        Collectable2Collection collectable2Collection;
-                        if (this.map.containsKey(id)) {
-                            collectable2Collection = this.map.get(id);
-                        } else {
-                            collectable2Collection = new Collectable2Collection();
-                            this.map.put(id, collectable2Collection);
-                        }
-                        return collectable2Collection.addCollectable(collectable);
-                    }
-
-                    /**
-                     * The class definition to map Collectable classes to Collectables
-                     */
-                    private static final class Collectable2Collection {
-
-                        /**
-                         * The internal association between a collectable class and its collectables
-                         */
-                        private final Map<Class<? extends DataModel>, List<DataModel>> map;
-
-                        /**
-                         * Empty constructor to initialize the map
-                         */
-                        public Collectable2Collection() {
-                            this.map = new HashMap<>();
-                        }
-
-                        /**
-                         * <strong>addCollectable</strong> associate collectable to a collection of
-                         * collectables of the same type
-                         * <p>
-                         * If the class is not yet present, a new entry in the map will be stored, a
-                         * new list will be created and collectable will be stored inside the
-                         * collection
-                         * </p>
-                         * <p>
-                         * if the class is present, the entry will be resumed and the collectable
-                         * will be add to the collection
-                         * </p>
-                         *
-                         * @param collectable the collectable
-                         * @return A pair of elements where:
-                         *         <ul>
-                         *         <li>pair.left is a boolean that takes true if the list of
-                         *         collectables was already build, false instead</li>
-                         *         <li>pair.right is the resulting list of collectables</li>
-                         *         </ul>
-                         */
-                        public Pair<Boolean, List<DataModel>> addCollectable(
-                                DataModel collectable) {
-                            boolean wasListAlreadyPresent;
-                            List<DataModel> dataModels;
-                            Class<? extends DataModel> aClass = collectable.getClass();
-                            if (this.map.containsKey(aClass)) {
-                                // A collection for the same class has already been created
-                                wasListAlreadyPresent = true;
-                                dataModels = this.map.get(aClass);
-                                dataModels.add(collectable);
-                            } else {
-                                // No collection for the same class has already been created
-                                wasListAlreadyPresent = false;
-                                dataModels = new LinkedList<>();
-                                dataModels.add(collectable);
-                                this.map.put(aClass, dataModels);
-                            }
-                            return Pair.of(wasListAlreadyPresent, dataModels);
-                        }
-                    }
+                private <C extends DataModel> void fold(B base, C collectable, Collector<? super C, A, ?> collector) {
+                    if (this.base == null)
+                        this.base = base;
+                    if (collectable != null && this.ids.add(collectable.uniqueIdentifier()))
+                        collector.accumulator().accept(this.accumulator, collectable);
                 }
             }
+
         }
     }
 
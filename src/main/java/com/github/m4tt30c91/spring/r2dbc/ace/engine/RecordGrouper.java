@@ -0,0 +1,347 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.engine;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.springframework.data.util.Pair;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataModel;
+
+/**
+ * The class definition to group records according to a list of DataGroupModels
+ * <p>
+ * An instance holds the grouping state of a single processing, so that a new
+ * instance has to be created each time a set of records is grouped.
+ * </p>
+ */
+class RecordGrouper {
+
+    /**
+     * The list of DataGroupModels derived by the set of ModelMappers
+     */
+    private final List<DataGroupModel> dataGroupModels;
+    /**
+     * The mapping between Bases and Collectables
+     */
+    private final Bases2Collectables bases2Collectables;
+    /**
+     * The association between each DataGroupModel and its own Base
+     */
+    private final List<Pair<DataGroupModel, DataModel>> group2Base;
+    /**
+     * The association between each DataModel and its list of unique ids
+     */
+    private final Map<Class<? extends DataModel>, Set<String>> distinctDataModels;
+    /**
+     * The association between each DataModel class and the canonical instance of
+     * each of its unique ids
+     */
+    private final Map<Class<? extends DataModel>, Map<String, DataModel>> canonicalDataModels;
+
+    /**
+     * Instantiate the RecordGrouper with the list of DataGroupModels
+     *
+     * @param dataGroupModels the list of DataGroupModels derived by the set of
+     *                        ModelMappers
+     */
+    RecordGrouper(List<DataGroupModel> dataGroupModels) {
+        this.dataGroupModels = dataGroupModels;
+        this.bases2Collectables = new Bases2Collectables();
+        this.group2Base = new LinkedList<>();
+        this.distinctDataModels = new HashMap<>();
+        this.canonicalDataModels = new HashMap<>();
+    }
+
+    /**
+     * <strong>collectAndGroup</strong> collect all the records and apply each group
+     * function
+     *
+     * @param list the records processed by a statement
+     */
+    void collectAndGroup(List<Map<Class<? extends DataModel>, DataModel>> list) {
+
+        // Collect and group each record for each model grouping
+        for (Map<Class<? extends DataModel>, DataModel> record : list) {
+            this.internRecord(record);
+            for (DataGroupModel dataGroupModel : this.dataGroupModels) {
+                this.collectRecord(dataGroupModel, record);
+            }
+        }
+
+        // Distinct collections
+        for (Pair<DataGroupModel, DataModel> pair : this.group2Base) {
+            this.distinctCollection(pair);
+        }
+    }
+
+    /**
+     * <strong>internRecord</strong> replace each DataModel in the record with its
+     * canonical instance
+     * <p>
+     * The first instance found for a class and unique id becomes the canonical
+     * one, so that an entity shared by many bases, e.g. in many-to-many
+     * associations, is held once and every collection references the same
+     * instance. Bases are interned as well, so that the collectables of a base
+     * found in records merged from several sources, e.g. shards, are all set to
+     * the instance that is returned.
+     * </p>
+     *
+     * @param record a representation of a single record in terms of DataModels
+     */
+    private void internRecord(Map<Class<? extends DataModel>, DataModel> record) {
+        for (Map.Entry<Class<? extends DataModel>, DataModel> entry : record.entrySet()) {
+            DataModel dataModel = entry.getValue();
+            DataModel canonical = this.canonicalDataModels
+                    .computeIfAbsent(entry.getKey(), key -> new HashMap<>())
+                    .putIfAbsent(dataModel.uniqueIdentifier(), dataModel);
+            if (canonical != null)
+                entry.setValue(canonical);
+        }
+    }
+
+    /**
+     * <strong>collectRecord</strong> collect, if any, the association between the
+     * base and the collectable for that record
+     *
+     * @param dataGroupModel the association between a Base and a Collectable
+     * @param record         a representation of a single record in terms of
+     *                       DataModels
+     */
+    private void collectRecord(DataGroupModel dataGroupModel,
+            Map<Class<? extends DataModel>, DataModel> record) {
+
+        // Collect base and collectable classes
+        Class<? extends DataModel> baseClass = dataGroupModel.base();
+
+        // Guard point: no record to collect
+        boolean isBaseInRecord = record.containsKey(dataGroupModel.base());
+        boolean isCollectableInRecord = isBaseInRecord && record.containsKey(dataGroupModel.collectable());
+        if (!isCollectableInRecord)
+            return;
+
+        // Collect data models
+        DataModel base = record.get(dataGroupModel.base());
+        DataModel collectable = record.get(dataGroupModel.collectable());
+        String id = base.uniqueIdentifier();
+
+        // Add the collectable and, if the process generates a new collection, collect
+        // the association
+        Pair<Boolean, List<DataModel>> collectables = this.bases2Collectables.addCollectable(baseClass, id,
+                collectable);
+        if (!collectables.getFirst()) {
+            dataGroupModel.setCollectables(base, collectables.getSecond());
+            this.group2Base.add(Pair.of(dataGroupModel, base));
+        }
+
+    }
+
+    /**
+     * <strong>distinctCollection</strong> distinct all data in all collectables and
+     * rewrite on base
+     *
+     * @param pair the association between a ModelGrouping and a DataModel
+     */
+    private void distinctCollection(Pair<DataGroupModel, DataModel> pair) {
+
+        // Get data from pair
+        DataGroupModel dataGroupModel = pair.getFirst();
+        DataModel base = pair.getSecond();
+        Class<? extends DataModel> baseClass = base.getClass();
+        String id = base.uniqueIdentifier();
+
+        // Guard point: data already processed
+        boolean containsClass = this.distinctDataModels.containsKey(baseClass);
+        boolean skipRecord = containsClass && this.distinctDataModels.get(baseClass).contains(id);
+        if (skipRecord)
+            return;
+
+        // Get collectable and distinct
+        List<DataModel> collectables = dataGroupModel.getCollectables(base);
+        List<DataModel> distinctCollectables = collectables.stream()
+                .collect(Collectors.collectingAndThen(Collectors.toCollection(
+                        () -> new TreeSet<>(Comparator.comparing(DataModel::uniqueIdentifier))),
+                        LinkedList::new));
+
+        // Set collectable for base
+        dataGroupModel.setCollectables(base, distinctCollectables);
+
+        if (containsClass) { // Some data model for the same base class has already been
+                             // collected
+            this.distinctDataModels.get(baseClass).add(id);
+        } else { // No data model for the same base class has been collected yet
+            Set<String> set = new HashSet<>();
+            set.add(id);
+            this.distinctDataModels.put(baseClass, set);
+        }
+    }
+
+    /**
+     * The class definition to map Bases to Collectables
+     */
+    private static class Bases2Collectables {
+
+        /**
+         * The internal association between a base class and its ids
+         */
+        private final Map<Class<? extends DataModel>, BasesId2Collectables> map;
+
+        /**
+         * Empty constructor to initialize the map
+         */
+        public Bases2Collectables() {
+            this.map = new HashMap<>();
+        }
+
+        /**
+         * <strong>addCollectable</strong> associate a Base to a Collectable
+         * <p>
+         * If the baseClass is not yet present, a new entry in the map will be stored,
+         * and it will begin the delegation process to create the list of collectables
+         * starting from collectable.
+         * </p>
+         * <p>
+         * If the baseClass is present, the entry will be resumed and the delegation
+         * process will try to add collectable to an already existing collection if
+         * present, or create a new one if no collection has already been created.
+         * </p>
+         *
+         * @param baseClass   the base class
+         * @param id          the base id
+         * @param collectable the collectable element
+         * @return A pair of elements where:
+         *         <ul>
+         *         <li>pair.left is a boolean that takes true if the list of
+         *         collectables was already build, false instead</li>
+         *         <li>pair.right is the resulting list of collectables</li>
+         *         </ul>
+         */
+        public Pair<Boolean, List<DataModel>> addCollectable(
+                Class<? extends DataModel> baseClass, String id, DataModel collectable) {
+            BasesId2Collectables basesId2Collectables;
+            if (this.map.containsKey(baseClass)) {
+                basesId2Collectables = this.map.get(baseClass);
+            } else {
+                basesId2Collectables = new BasesId2Collectables();
+                this.map.put(baseClass, basesId2Collectables);
+            }
+            return basesId2Collectables.addCollectable(id, collectable);
+        }
+
+        /**
+         * The class definition to map Base Ids to Collectables
+         */
+        private static final class BasesId2Collectables {
+
+            /**
+             * The internal association between a base id and its collectables
+             */
+            private final Map<String, Collectable2Collection> map;
+
+            /**
+             * Empty constructor to initialize the map
+             */
+            public BasesId2Collectables() {
+                this.map = new HashMap<>();
+            }
+
+            /**
+             * <strong>addCollectable</strong> associate the base id to a collectable
+             * <p>
+             * If the id is not yet present, a new entry in the map will be stored, and it
+             * will begin the delegation process to create the list of collectables starting
+             * from collectable.
+             * </p>
+             * <p>
+             * If the id is present, the entry will be resumed and the delegation process
+             * will try to add collectable to an already existing collection if present, or
+             * create a new one if no collection has already been created.
+             * </p>
+             *
+             * @param id          the base id
+             * @param collectable the collectable
+             * @return A pair of elements where:
+             *         <ul>
+             *         <li>pair.left is a boolean that takes true if the list of
+             *         collectables was already build, false instead</li>
+             *         <li>pair.right is the resulting list of collectables</li>
+             *         </ul>
+             */
+            public Pair<Boolean, List<DataModel>> addCollectable(String id,
+                    DataModel collectable) {
+                Collectable2Collection collectable2Collection;
+                if (this.map.containsKey(id)) {
+                    collectable2Collection = this.map.get(id);
+                } else {
+                    collectable2Collection = new Collectable2Collection();
+                    this.map.put(id, collectable2Collection);
+                }
+                return collectable2Collection.addCollectable(collectable);
+            }
+
+            /**
+             * The class definition to map Collectable classes to Collectables
+             */
+            private static final class Collectable2Collection {
+
+                /**
+                 * The internal association between a collectable class and its collectables
+                 */
+                private final Map<Class<? extends DataModel>, List<DataModel>> map;
+
+                /**
+                 * Empty constructor to initialize the map
+                 */
+                public Collectable2Collection() {
+                    this.map = new HashMap<>();
+                }
+
+                /**
+                 * <strong>addCollectable</strong> associate collectable to a collection of
+                 * collectables of the same type
+                 * <p>
+                 * If the class is not yet present, a new entry in the map will be stored, a
+                 * new list will be created and collectable will be stored inside the
+                 * collection
+                 * </p>
+                 * <p>
+                 * if the class is present, the entry will be resumed and the collectable
+                 * will be add to the collection
+                 * </p>
+                 *
+                 * @param collectable the collectable
+                 * @return A pair of elements where:
+                 *         <ul>
+                 *         <li>pair.left is a boolean that takes true if the list of
+                 *         collectables was already build, false instead</li>
+                 *         <li>pair.right is the resulting list of collectables</li>
+                 *         </ul>
+                 */
+                public Pair<Boolean, List<DataModel>> addCollectable(
+                        DataModel collectable) {
+                    boolean wasListAlreadyPresent;
+                    List<DataModel> dataModels;
+                    Class<? extends DataModel> aClass = collectable.getClass();
+                    if (this.map.containsKey(aClass)) {
+                        // A collection for the same class has already been created
+                        wasListAlreadyPresent = true;
+                        dataModels = this.map.get(aClass);
+                        dataModels.add(collectable);
+                    } else {
+                        // No collection for the same class has already been created
+                        wasListAlreadyPresent = false;
+                        dataModels = new LinkedList<>();
+                        dataModels.add(collectable);
+                        this.map.put(aClass, dataModels);
+                    }
+                    return Pair.of(wasListAlreadyPresent, dataModels);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.engine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.reactivestreams.Publisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataModel;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * A QuerySelectorEngine that submits each select statement to one of the
+ * replicas of a primary database
+ * <p>
+ * Each statement is submitted to the healthy replica with the least
+ * outstanding statements, ties being broken by the lowest average latency. A
+ * replica whose statements fail maxConsecutiveErrors times in a row because of
+ * a connection or resource failure is ejected for ejectionTime, and the
+ * statements are submitted to the primary when every replica is ejected.
+ * Application errors, e.g. bad sql or constraint violations, do not affect the
+ * health of a replica. A statement subscribed with the READ_YOUR_WRITES key in
+ * its Reactor Context is always submitted to the primary, e.g.
+ * <code>.contextWrite(ReplicaRoutingQuerySelectorEngine::readYourWrites)</code>.
+ * </p>
+ * <p>
+ * A QueryBatch executed on a single connection takes the connection from the
+ * replica chosen for the whole batch, while a QueryBatch executed concurrently
+ * routes each of its statements on its own.
+ * </p>
+ */
+public class ReplicaRoutingQuerySelectorEngine extends QuerySelectorEngine {
+
+    /**
+     * The Reactor Context key that pins a statement to the primary
+     */
+    public static final String READ_YOUR_WRITES = ReplicaRoutingQuerySelectorEngine.class.getName()
+            + ".READ_YOUR_WRITES";
+    /**
+     * The weight of the last latency in the average latency of a replica
+     */
+    private static final double LATENCY_DECAY = 0.2;
+
+    /**
+     * The DatabaseClient of the primary
+     */
+    private final DatabaseClient primary;
+    /**
+     * The state of each replica
+     */
+    private final List<Replica> replicas;
+    /**
+     * The number of consecutive failed statements that ejects a replica
+     */
+    private final int maxConsecutiveErrors;
+    /**
+     * The time a replica is ejected for
+     */
+    private final Duration ejectionTime;
+
+    /**
+     * Instantiate the ReplicaRoutingQuerySelectorEngine ejecting a replica for 30
+     * seconds after 3 consecutive failed statements
+     *
+     * @param primary  the DatabaseClient of the primary
+     * @param replicas the DatabaseClient of each replica
+     */
+    public ReplicaRoutingQuerySelectorEngine(final DatabaseClient primary, final List<DatabaseClient> replicas) {
+        this(primary, replicas, 3, Duration.ofSeconds(30));
+    }
+
+    /**
+     * Instantiate the ReplicaRoutingQuerySelectorEngine
+     *
+     * @param primary              the DatabaseClient of the primary
+     * @param replicas             the DatabaseClient of each replica
+     * @param maxConsecutiveErrors the number of consecutive failed statements
+     *                             that ejects a replica
+     * @param ejectionTime         the time a replica is ejected for
+     */
+    public ReplicaRoutingQuerySelectorEngine(final DatabaseClient primary, final List<DatabaseClient> replicas,
+            final int maxConsecutiveErrors, final Duration ejectionTime) {
+        this(primary, replicas, maxConsecutiveErrors, ejectionTime, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Instantiate the ReplicaRoutingQuerySelectorEngine with a Scheduler
+     * <p>
+     * Each result read from the primary or a replica whose size is greater than or
+     * equal to offloadThreshold will be grouped on scheduler, as
+     * QuerySelectorEngine(DatabaseClient, Scheduler, int) does.
+     * </p>
+     *
+     * @param primary              the DatabaseClient of the primary
+     * @param replicas             the DatabaseClient of each replica
+     * @param maxConsecutiveErrors the number of consecutive failed statements
+     *                             that ejects a replica
+     * @param ejectionTime         the time a replica is ejected for
+     * @param scheduler            the Scheduler used to offload the processing of
+     *                             large results, e.g. Schedulers.parallel()
+     * @param offloadThreshold     the minimum number of records that triggers the
+     *                             offloading
+     */
+    public ReplicaRoutingQuerySelectorEngine(final DatabaseClient primary, final List<DatabaseClient> replicas,
+            final int maxConsecutiveErrors, final Duration ejectionTime, final Scheduler scheduler,
+            final int offloadThreshold) {
+        super(primary, scheduler, offloadThreshold);
+        if (maxConsecutiveErrors < 1) {
+            throw new IllegalArgumentException("maxConsecutiveErrors must be greater than 0");
+        }
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableList(replicas.stream().map(Replica::new).collect(Collectors.toList()));
+        this.maxConsecutiveErrors = maxConsecutiveErrors;
+        this.ejectionTime = ejectionTime;
+    }
+
+    /**
+     * <strong>readYourWrites</strong> pin the statements subscribed with the
+     * Context to the primary
+     *
+     * @param context the Reactor Context
+     * @return the Context with the READ_YOUR_WRITES key
+     */
+    public static Context readYourWrites(Context context) {
+        return context.put(READ_YOUR_WRITES, Boolean.TRUE);
+    }
+
+    /**
+     * <strong>getReplicaStates</strong> retrieve a snapshot of the state of each
+     * replica
+     *
+     * @return the state of each replica, in the order the replicas have been
+     *         submitted
+     */
+    public List<ReplicaState> getReplicaStates() {
+        long now = System.nanoTime();
+        List<ReplicaState> replicaStates = new ArrayList<>(this.replicas.size());
+        for (Replica replica : this.replicas) {
+            replicaStates.add(new ReplicaState(replica.outstanding.get(), Duration.ofNanos((long) replica.getLatency()),
+                    replica.isEjected(now)));
+        }
+        return replicaStates;
+    }
+
+    /**
+     * <strong>batch</strong> create a QueryBatch whose single connection, if any,
+     * is taken from the replica chosen as for any other statement
+     *
+     * @return a QueryBatch bound to this ReplicaRoutingQuerySelectorEngine
+     */
+    @Override
+    public QueryBatch batch() {
+        return new QueryBatch(this.primary,
+                execution -> Flux.deferContextual(contextView -> this.route(contextView, execution)).single());
+    }
+
+    @Override
+    protected Flux<Map<Class<? extends DataModel>, DataModel>> execute(String sql, Map<String, Object> bindings,
+            ModelMapper... modelMappers) {
+        return Flux.deferContextual(contextView -> this.route(contextView,
+                databaseClient -> executeOn(databaseClient, sql, bindings, modelMappers)));
+    }
+
+    /**
+     * <strong>route</strong> submit an execution to the primary or to the chosen
+     * replica, accounting it as outstanding on the replica until it terminates
+     * <p>
+     * The execution is deferred, so that an exception thrown while the statement
+     * is being prepared, e.g. an invalid binding, terminates the statement with
+     * an error and releases the replica as well.
+     * </p>
+     *
+     * @param contextView the Reactor Context of the subscriber
+     * @param execution   the execution on a DatabaseClient
+     * @param <T>         the type of the elements published by the execution
+     * @return the elements published by the execution
+     */
+    private <T> Flux<T> route(ContextView contextView, Function<DatabaseClient, ? extends Publisher<T>> execution) {
+        if (contextView.getOrDefault(READ_YOUR_WRITES, Boolean.FALSE)) {
+            return Flux.from(execution.apply(this.primary));
+        }
+        Replica replica = this.select();
+        if (replica == null) {
+            return Flux.from(execution.apply(this.primary));
+        }
+        long start = System.nanoTime();
+        return Flux.<T>defer(() -> execution.apply(replica.databaseClient))
+                .doOnComplete(() -> this.succeed(replica, System.nanoTime() - start))
+                .doOnError(error -> this.fail(replica, error))
+                .doFinally(signalType -> replica.outstanding.decrementAndGet());
+    }
+
+    /**
+     * <strong>select</strong> choose the replica a statement is submitted to and
+     * count the statement as outstanding
+     * <p>
+     * The outstanding count of the chosen replica is incremented only if it did
+     * not change since it was read, otherwise the choice is repeated, so that
+     * concurrent statements do not all pile onto the same replica.
+     * </p>
+     *
+     * @return the replica or null if every replica is ejected
+     */
+    private Replica select() {
+        while (true) {
+            long now = System.nanoTime();
+            Replica selected = null;
+            int selectedOutstanding = 0;
+            double selectedLatency = 0;
+            for (Replica replica : this.replicas) {
+                // guard point: skip the ejected replicas
+                if (replica.isEjected(now)) {
+                    continue;
+                }
+                int outstanding = replica.outstanding.get();
+                double latency = replica.getLatency();
+                if (selected == null || outstanding < selectedOutstanding
+                        || (outstanding == selectedOutstanding && latency < selectedLatency)) {
+                    selected = replica;
+                    selectedOutstanding = outstanding;
+                    selectedLatency = latency;
+                }
+            }
+            if (selected == null) {
+                return null;
+            }
+            if (selected.outstanding.compareAndSet(selectedOutstanding, selectedOutstanding + 1)) {
+                return selected;
+            }
+        }
+    }
+
+    /**
+     * <strong>succeed</strong> update the state of a replica once a statement
+     * completed
+     *
+     * @param replica the replica
+     * @param elapsed the nanoseconds elapsed since the statement has been
+     *                subscribed
+     */
+    private void succeed(Replica replica, long elapsed) {
+        replica.consecutiveErrors.set(0);
+        replica.latency.updateAndGet(bits -> {
+            double latency = Double.longBitsToDouble(bits);
+            return Double.doubleToLongBits(latency == 0 ? elapsed : latency + LATENCY_DECAY * (elapsed - latency));
+        });
+    }
+
+    /**
+     * <strong>fail</strong> update the state of a replica once a statement failed,
+     * ejecting the replica after maxConsecutiveErrors replica failures
+     *
+     * @param replica the replica
+     * @param error   the error that terminated the statement
+     */
+    private void fail(Replica replica, Throwable error) {
+        // guard point: the replica answered, the statement itself is wrong
+        if (!this.isReplicaFailure(error)) {
+            return;
+        }
+        if (replica.consecutiveErrors.incrementAndGet() >= this.maxConsecutiveErrors) {
+            replica.consecutiveErrors.set(0);
+            replica.ejectedUntil = System.nanoTime() + this.ejectionTime.toNanos();
+        }
+    }
+
+    /**
+     * <strong>isReplicaFailure</strong> check whether an error is a failure of the
+     * replica rather than of the statement
+     * <p>
+     * An error is a failure of the replica if it, or any of its causes, is an
+     * R2dbcTransientResourceException, an R2dbcNonTransientResourceException or a
+     * DataAccessResourceFailureException, the latter being raised by the
+     * DatabaseClient when a connection cannot be obtained. Override the method to
+     * classify the errors of a specific driver.
+     * </p>
+     *
+     * @param error the error that terminated a statement
+     * @return true if the error counts toward the ejection of the replica
+     */
+    protected boolean isReplicaFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof R2dbcTransientResourceException || cause instanceof R2dbcNonTransientResourceException
+                    || cause instanceof DataAccessResourceFailureException) {
+                return true;
+            }
+            // guard point: a self-referencing cause
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The class definition of the mutable state of a replica
+     */
+    private static class Replica {
+
+        /**
+         * The DatabaseClient of the replica
+         */
+        private final DatabaseClient databaseClient;
+        /**
+         * The number of statements not terminated yet
+         */
+        private final AtomicInteger outstanding;
+        /**
+         * The number of failed statements since the last successful one
+         */
+        private final AtomicInteger consecutiveErrors;
+        /**
+         * The bits of the exponentially weighted moving average of the latency in
+         * nanoseconds, as returned by Double::doubleToLongBits
+         */
+        private final AtomicLong latency;
+        /**
+         * The System::nanoTime until which the replica is ejected
+         */
+        private volatile long ejectedUntil;
+
+        /**
+         * Instantiate the Replica
+         *
+         * @param databaseClient the DatabaseClient of the replica
+         */
+        private Replica(DatabaseClient databaseClient) {
+            this.databaseClient = databaseClient;
+            this.outstanding = new AtomicInteger();
+            this.consecutiveErrors = new AtomicInteger();
+            this.latency = new AtomicLong(Double.doubleToLongBits(0));
+            this.ejectedUntil = System.nanoTime();
+        }
+
+        /**
+         * <strong>getLatency</strong> retrieve the average latency
+         *
+         * @return the exponentially weighted moving average of the latency in
+         *         nanoseconds
+         */
+        private double getLatency() {
+            return Double.longBitsToDouble(this.latency.get());
+        }
+
+        /**
+         * <strong>isEjected</strong> check whether the replica is ejected
+         *
+         * @param now the current System::nanoTime
+         * @return true if the replica is ejected
+         */
+        private boolean isEjected(long now) {
+            return now - this.ejectedUntil < 0;
+        }
+    }
+
+    /**
+     * The class definition of a snapshot of the state of a replica
+     */
+    public static class ReplicaState {
+
+        /**
+         * The number of statements not terminated yet
+         */
+        private final int outstanding;
+        /**
+         * The average latency
+         */
+        private final Duration latency;
+        /**
+         * Whether the replica is ejected
+         */
+        private final boolean ejected;
+
+        /**
+         * Private constructor to prevent external code to create an instance of the
+         * class
+         *
+         * @param outstanding the number of statements not terminated yet
+         * @param latency     the average latency
+         * @param ejected     whether the replica is ejected
+         */
+        private ReplicaState(int outstanding, Duration latency, boolean ejected) {
+            this.outstanding = outstanding;
+            this.latency = latency;
+            this.ejected = ejected;
+        }
+
+        /**
+         * <strong>getOutstanding</strong> retrieve the number of statements not
+         * terminated yet
+         *
+         * @return the number of outstanding statements
+         */
+        public int getOutstanding() {
+            return this.outstanding;
+        }
+
+        /**
+         * <strong>getLatency</strong> retrieve the exponentially weighted moving
+         * average of the latency
+         *
+         * @return the average latency, zero if no statement completed yet
+         */
+        public Duration getLatency() {
+            return this.latency;
+        }
+
+        /**
+         * <strong>isEjected</strong> check whether the replica is ejected
+         *
+         * @return true if the replica is ejected
+         */
+        public boolean isEjected() {
+            return this.ejected;
+        }
+    }
+}
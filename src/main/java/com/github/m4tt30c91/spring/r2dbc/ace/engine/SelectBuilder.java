@@ -0,0 +1,285 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.engine;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.data.util.Pair;
+import com.github.m4tt30c91.spring.r2dbc.ace.engine.QuerySelectorEngine.QueryProcessor;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapperRegistry;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapperSet;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.TableModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.JoinDataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.LazyDataGroupModel;
+
+/**
+ * A builder of the select sql statement read by a set of TableModelMappers
+ * <p>
+ * Starting from the table of the target class, the table of each ModelMapper
+ * is left joined through the JoinDataGroupModels declared by the ModelMappers,
+ * and only the columns declared by the ModelMappers are selected, aliased as
+ * ModelMapper::map reads them. The ModelMappers define the paths to be joined,
+ * so that omitting a ModelMapper prunes its table and its columns from the
+ * statement.
+ * </p>
+ * <p>
+ * The SELECT and FROM clauses depend on the target class and on the classes of
+ * the ModelMappers only, so they are generated once and cached by the
+ * QuerySelectorEngine, while the WHERE and ORDER BY clauses are appended on
+ * each call. The predicates are copied verbatim into the statement, so they
+ * must reference bind markers, e.g. <em>a.id = :authorId</em>, rather than
+ * literal values: concatenating request data into a predicate opens the
+ * statement to sql injection and defeats the statement cache of the driver.
+ * </p>
+ */
+public class SelectBuilder {
+
+    /**
+     * The QuerySelectorEngine that created the builder
+     */
+    private final QuerySelectorEngine engine;
+    /**
+     * The cache of the SELECT and FROM clauses, paired with the key column of the
+     * target class, shared by the QuerySelectorEngine
+     */
+    private final Map<String, Pair<String, String>> sqlCache;
+    /**
+     * The target class
+     */
+    private final Class<? extends DataModel> tClass;
+    /**
+     * The ModelMapperSet reading the result
+     */
+    private final ModelMapperSet modelMapperSet;
+    /**
+     * The predicates of the WHERE clause
+     */
+    private final List<String> predicates;
+    /**
+     * Whether the result is ordered by the key of the target class
+     */
+    private boolean isOrderedByKey;
+
+    /**
+     * Package-private constructor, use QuerySelectorEngine::select to create a
+     * builder
+     *
+     * @param engine         the QuerySelectorEngine
+     * @param sqlCache       the cache of the SELECT and FROM clauses
+     * @param tClass         the target class
+     * @param modelMapperSet the ModelMapperSet reading the result
+     */
+    SelectBuilder(QuerySelectorEngine engine, Map<String, Pair<String, String>> sqlCache, Class<? extends DataModel> tClass,
+            ModelMapperSet modelMapperSet) {
+        this.engine = engine;
+        this.sqlCache = sqlCache;
+        this.tClass = tClass;
+        this.modelMapperSet = modelMapperSet;
+        this.predicates = new LinkedList<>();
+        this.isOrderedByKey = false;
+    }
+
+    /**
+     * <strong>where</strong> add a predicate to the WHERE clause, in terms of the
+     * table aliases of the ModelMappers, e.g. <em>a.id = :authorId</em>
+     *
+     * @param predicate the predicate, combined with the others through AND, whose
+     *                  values must be bind markers rather than literals
+     * @return the same SelectBuilder to implement fluent programming
+     */
+    public SelectBuilder where(String predicate) {
+        this.predicates.add(predicate);
+        return this;
+    }
+
+    /**
+     * <strong>orderByKey</strong> order the result by the key column of the target
+     * class, as required by QueryResultProcessor::streamMany
+     *
+     * @return the same SelectBuilder to implement fluent programming
+     */
+    public SelectBuilder orderByKey() {
+        this.isOrderedByKey = true;
+        return this;
+    }
+
+    /**
+     * <strong>getSql</strong> retrieve the select sql statement, generating its
+     * SELECT and FROM clauses the first time the same ModelMappers are requested
+     *
+     * @return the select sql statement
+     * @throws IllegalArgumentException if a ModelMapper is not a TableModelMapper,
+     *                                  if two ModelMappers emit the same class, if
+     *                                  no ModelMapper emits the target class or if
+     *                                  no JoinDataGroupModel path reaches a
+     *                                  ModelMapper
+     */
+    public String getSql() {
+        Pair<String, String> selectFrom = this.sqlCache.computeIfAbsent(this.cacheKey(), key -> this.generate());
+        StringBuilder sql = new StringBuilder(selectFrom.getFirst());
+        if (!this.predicates.isEmpty()) {
+            sql.append(" WHERE ").append(this.predicates.stream().map(predicate -> '(' + predicate + ')')
+                    .collect(Collectors.joining(" AND ")));
+        }
+        if (this.isOrderedByKey) {
+            sql.append(" ORDER BY ").append(selectFrom.getSecond());
+        }
+        return sql.toString();
+    }
+
+    /**
+     * <strong>processSql</strong> submit the select sql statement to the
+     * QuerySelectorEngine, e.g.
+     * <code>.processSql().bind("authorId", 1).applyModelMappers()</code> to apply
+     * the ModelMappers the statement has been generated from
+     *
+     * @return a QueryProcessor to process the result
+     */
+    public QueryProcessor processSql() {
+        return this.engine.processSql(this.getSql(), this.modelMapperSet);
+    }
+
+    /**
+     * <strong>cacheKey</strong> describe the ModelMappers of the statement being
+     * built, leaving the predicates out so that the cache is bounded by the
+     * combinations of ModelMappers the application declares
+     * <p>
+     * The key is made of the metadata declared by each TableModelMapper and each
+     * JoinDataGroupModel rather than of their classes, so that two instances of
+     * the same class declaring different tables, aliases or columns do not share
+     * the same statement.
+     * </p>
+     *
+     * @return the key of the SELECT and FROM clauses in the cache
+     */
+    private String cacheKey() {
+        StringBuilder key = new StringBuilder(this.tClass.getName());
+        for (ModelMapper<?> modelMapper : this.modelMapperSet.getModelMappers()) {
+            key.append('|').append(modelMapper.getClass().getName());
+            if (modelMapper instanceof TableModelMapper) {
+                TableModelMapper<?> tableModelMapper = (TableModelMapper<?>) modelMapper;
+                key.append(':').append(tableModelMapper.table()).append(':').append(tableModelMapper.tableAlias())
+                        .append(':').append(tableModelMapper.keyColumn()).append(':')
+                        .append(tableModelMapper.columns());
+            }
+        }
+        for (DataGroupModel dataGroupModel : this.modelMapperSet.getDataGroupModels()) {
+            if (dataGroupModel instanceof JoinDataGroupModel && !(dataGroupModel instanceof LazyDataGroupModel)) {
+                JoinDataGroupModel<?, ?> joinDataGroupModel = (JoinDataGroupModel<?, ?>) dataGroupModel;
+                key.append('|').append(joinDataGroupModel.base().getName()).append('>')
+                        .append(joinDataGroupModel.collectable().getName()).append(':')
+                        .append(joinDataGroupModel.baseColumn()).append(':')
+                        .append(joinDataGroupModel.collectableColumn()).append(':')
+                        .append(joinDataGroupModel.linkTable()).append(':')
+                        .append(joinDataGroupModel.linkBaseColumn()).append(':')
+                        .append(joinDataGroupModel.linkCollectableColumn());
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * <strong>generate</strong> generate the SELECT and FROM clauses
+     *
+     * @return the SELECT and FROM clauses paired with the key column of the target
+     *         class
+     */
+    private Pair<String, String> generate() {
+
+        // Index the TableModelMappers by emitted class
+        Map<Class<?>, TableModelMapper<?>> tableModelMappers = new LinkedHashMap<>();
+        for (ModelMapper<?> modelMapper : this.modelMapperSet.getModelMappers()) {
+            if (!(modelMapper instanceof TableModelMapper)) {
+                throw new IllegalArgumentException(modelMapper.getClass().getName() + " is not a TableModelMapper");
+            }
+            Class<?> emittedClass = ModelMapperRegistry.resolveDataModelClass(modelMapper);
+            if (emittedClass == null) {
+                throw new IllegalArgumentException("Cannot resolve the class emitted by " + modelMapper.getClass().getName());
+            }
+            TableModelMapper<?> other = tableModelMappers.putIfAbsent(emittedClass, (TableModelMapper<?>) modelMapper);
+            if (other != null) {
+                throw new IllegalArgumentException(String.format("Both %s and %s emit %s", other.getClass().getName(),
+                        modelMapper.getClass().getName(), emittedClass.getName()));
+            }
+        }
+
+        // Guard point: no table to select from
+        TableModelMapper<?> target = tableModelMappers.get(this.tClass);
+        if (target == null) {
+            throw new IllegalArgumentException("No TableModelMapper emits " + this.tClass.getName());
+        }
+
+        // Join the tables breadth first starting from the target class
+        Map<Class<?>, TableModelMapper<?>> joined = new LinkedHashMap<>();
+        joined.put(this.tClass, target);
+        StringBuilder from = new StringBuilder(" FROM ").append(target.table()).append(' ').append(target.tableAlias());
+        LinkedList<Class<?>> queue = new LinkedList<>();
+        queue.add(this.tClass);
+        while (!queue.isEmpty()) {
+            Class<?> baseClass = queue.poll();
+            for (DataGroupModel dataGroupModel : this.modelMapperSet.getDataGroupModels()) {
+                // Lazy collectables are loaded by their own statement
+                boolean isJoin = dataGroupModel instanceof JoinDataGroupModel
+                        && !(dataGroupModel instanceof LazyDataGroupModel);
+                Class<?> collectableClass = dataGroupModel.collectable();
+                if (!isJoin || dataGroupModel.base() != baseClass || joined.containsKey(collectableClass)
+                        || !tableModelMappers.containsKey(collectableClass))
+                    continue;
+                TableModelMapper<?> base = joined.get(baseClass);
+                TableModelMapper<?> collectable = tableModelMappers.get(collectableClass);
+                this.join(from, (JoinDataGroupModel) dataGroupModel, base, collectable);
+                joined.put(collectableClass, collectable);
+                queue.add(collectableClass);
+            }
+        }
+
+        // Guard point: some ModelMapper cannot be joined
+        if (joined.size() < tableModelMappers.size()) {
+            String unreachable = tableModelMappers.keySet().stream().filter(key -> !joined.containsKey(key))
+                    .map(Class::getName).collect(Collectors.joining(", "));
+            throw new IllegalArgumentException(String.format("No JoinDataGroupModel joins %s to %s", unreachable,
+                    this.tClass.getName()));
+        }
+
+        // Select the declared columns only
+        StringBuilder sql = new StringBuilder("SELECT ");
+        sql.append(joined.values().stream()
+                .flatMap(tableModelMapper -> tableModelMapper.columns().entrySet().stream()
+                        .map(column -> tableModelMapper.tableAlias() + '.' + column.getValue() + " AS "
+                                + column.getKey()))
+                .collect(Collectors.joining(", ")));
+        sql.append(from);
+        return Pair.of(sql.toString(), target.tableAlias() + '.' + target.keyColumn());
+    }
+
+    /**
+     * <strong>join</strong> append the LEFT JOIN clauses of a JoinDataGroupModel
+     *
+     * @param from               the FROM clause being built
+     * @param joinDataGroupModel the association between the base and the
+     *                           collectable tables
+     * @param base               the TableModelMapper of the base
+     * @param collectable        the TableModelMapper of the collectable
+     */
+    private void join(StringBuilder from, JoinDataGroupModel<?, ?> joinDataGroupModel, TableModelMapper<?> base,
+            TableModelMapper<?> collectable) {
+        String baseColumn = base.tableAlias() + '.' + joinDataGroupModel.baseColumn();
+        String collectableColumn = collectable.tableAlias() + '.' + joinDataGroupModel.collectableColumn();
+        if (joinDataGroupModel.linkTable() == null) {
+            from.append(" LEFT JOIN ").append(collectable.table()).append(' ').append(collectable.tableAlias())
+                    .append(" ON ").append(baseColumn).append(" = ").append(collectableColumn);
+            return;
+        }
+        String linkAlias = base.tableAlias() + '_' + collectable.tableAlias();
+        from.append(" LEFT JOIN ").append(joinDataGroupModel.linkTable()).append(' ').append(linkAlias)
+                .append(" ON ").append(baseColumn).append(" = ").append(linkAlias).append('.')
+                .append(joinDataGroupModel.linkBaseColumn())
+                .append(" LEFT JOIN ").append(collectable.table()).append(' ').append(collectable.tableAlias())
+                .append(" ON ").append(linkAlias).append('.').append(joinDataGroupModel.linkCollectableColumn())
+                .append(" = ").append(collectableColumn);
+    }
+}
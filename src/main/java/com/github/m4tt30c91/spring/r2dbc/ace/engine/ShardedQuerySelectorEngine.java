@@ -0,0 +1,223 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.r2dbc.core.DatabaseClient;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataModel;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * A QuerySelectorEngine that submits each select statement to a set of shards
+ * <p>
+ * The records of every targeted shard are merged before being grouped, so that
+ * DataModels are merged by DataModel::uniqueIdentifier, including the
+ * collections of the same base whose collectables are split across shards.
+ * </p>
+ */
+public class ShardedQuerySelectorEngine extends QuerySelectorEngine {
+
+    /**
+     * The DatabaseClient of each shard
+     */
+    private final List<DatabaseClient> shards;
+    /**
+     * The function choosing the shards a statement is submitted to
+     */
+    private final ShardRouter shardRouter;
+    /**
+     * The maximum number of shards queried at the same time
+     */
+    private final int parallelism;
+    /**
+     * The order of the records of each shard, or null if the records are merged
+     * as soon as they are received
+     */
+    private final Comparator<Map<Class<? extends DataModel>, DataModel>> recordComparator;
+
+    /**
+     * Instantiate the ShardedQuerySelectorEngine submitting each statement to
+     * every shard at the same time
+     *
+     * @param shards the DatabaseClient of each shard
+     */
+    public ShardedQuerySelectorEngine(final List<DatabaseClient> shards) {
+        this(shards, bindings -> Collections.emptyList(), Math.max(1, shards == null ? 0 : shards.size()));
+    }
+
+    /**
+     * Instantiate the ShardedQuerySelectorEngine with a ShardRouter
+     *
+     * @param shards      the DatabaseClient of each shard
+     * @param shardRouter the function choosing the shards a statement is
+     *                    submitted to
+     * @param parallelism the maximum number of shards queried at the same time
+     */
+    public ShardedQuerySelectorEngine(final List<DatabaseClient> shards, final ShardRouter shardRouter,
+            final int parallelism) {
+        this(shards, shardRouter, parallelism, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Instantiate the ShardedQuerySelectorEngine with a ShardRouter and a
+     * Scheduler
+     * <p>
+     * Each result merged from the shards whose size is greater than or equal to
+     * offloadThreshold will be grouped on scheduler, as
+     * QuerySelectorEngine(DatabaseClient, Scheduler, int) does.
+     * </p>
+     *
+     * @param shards           the DatabaseClient of each shard
+     * @param shardRouter      the function choosing the shards a statement is
+     *                         submitted to
+     * @param parallelism      the maximum number of shards queried at the same
+     *                         time
+     * @param scheduler        the Scheduler used to offload the processing of
+     *                         large results, e.g. Schedulers.parallel()
+     * @param offloadThreshold the minimum number of records that triggers the
+     *                         offloading
+     */
+    public ShardedQuerySelectorEngine(final List<DatabaseClient> shards, final ShardRouter shardRouter,
+            final int parallelism, final Scheduler scheduler, final int offloadThreshold) {
+        this(shards, shardRouter, parallelism, scheduler, offloadThreshold, null);
+    }
+
+    /**
+     * Private constructor to share the shards between ordered and unordered
+     * engines
+     *
+     * @param shards           the DatabaseClient of each shard
+     * @param shardRouter      the function choosing the shards a statement is
+     *                         submitted to
+     * @param parallelism      the maximum number of shards queried at the same
+     *                         time
+     * @param scheduler        the Scheduler used to offload the processing of
+     *                         large results, or null
+     * @param offloadThreshold the minimum number of records that triggers the
+     *                         offloading
+     * @param recordComparator the order of the records of each shard, or null
+     */
+    private ShardedQuerySelectorEngine(final List<DatabaseClient> shards, final ShardRouter shardRouter,
+            final int parallelism, final Scheduler scheduler, final int offloadThreshold,
+            final Comparator<Map<Class<? extends DataModel>, DataModel>> recordComparator) {
+        super(firstShard(shards), scheduler, offloadThreshold);
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than 0");
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.shardRouter = shardRouter;
+        this.parallelism = parallelism;
+        this.recordComparator = recordComparator;
+    }
+
+    /**
+     * <strong>firstShard</strong> check that at least one shard is submitted
+     *
+     * @param shards the DatabaseClient of each shard
+     * @return the DatabaseClient of the first shard
+     */
+    private static DatabaseClient firstShard(List<DatabaseClient> shards) {
+        if (shards == null || shards.isEmpty()) {
+            throw new IllegalArgumentException("shards must contain at least one DatabaseClient");
+        }
+        return shards.get(0);
+    }
+
+    /**
+     * <strong>orderedBy</strong> create a ShardedQuerySelectorEngine that merges
+     * the records of the shards in the order of their tClass entries
+     * <p>
+     * Each shard must return its records in the same order, e.g. through an ORDER
+     * BY clause on the key of tClass: the records are then merged with a k-way
+     * merge, so that QueryResultProcessor::streamMany receives the records of each
+     * entry next to each other, whatever shard they come from. Please note that
+     * every targeted shard is queried at the same time, regardless of the
+     * parallelism.
+     * </p>
+     *
+     * @param tClass     the class whose entries define the order
+     * @param comparator the order of the tClass entries
+     * @param <T>        the type of the class
+     * @return the ordered ShardedQuerySelectorEngine
+     */
+    public <T extends DataModel> ShardedQuerySelectorEngine orderedBy(Class<T> tClass,
+            Comparator<? super T> comparator) {
+        Comparator<Map<Class<? extends DataModel>, DataModel>> recordComparator = Comparator.comparing(
+                record -> (T) record.get(tClass), Comparator.nullsLast(comparator));
+        return new ShardedQuerySelectorEngine(this.shards, this.shardRouter, this.parallelism,
+                this.getScheduler(), this.getOffloadThreshold(), recordComparator);
+    }
+
+    /**
+     * <strong>batch</strong> create a QueryBatch whose statements are executed
+     * concurrently, since a single connection cannot span several shards
+     *
+     * @return a QueryBatch bound to this ShardedQuerySelectorEngine
+     */
+    @Override
+    public QueryBatch batch() {
+        return new QueryBatch(null);
+    }
+
+    @Override
+    protected Flux<Map<Class<? extends DataModel>, DataModel>> execute(String sql, Map<String, Object> bindings,
+            ModelMapper... modelMappers) {
+        List<Flux<Map<Class<? extends DataModel>, DataModel>>> shardRecords = this.route(bindings).stream()
+                .map(shard -> executeOn(shard, sql, bindings, modelMappers))
+                .collect(Collectors.toList());
+        if (this.recordComparator == null) {
+            return Flux.fromIterable(shardRecords).flatMap(records -> records, this.parallelism);
+        }
+        return Flux.mergeComparing(this.recordComparator, shardRecords.toArray(new Flux[0]));
+    }
+
+    /**
+     * <strong>route</strong> choose the shards a statement is submitted to
+     *
+     * @param bindings the association between bind variables and values
+     * @return the DatabaseClient of each targeted shard
+     * @throws IllegalArgumentException if the ShardRouter returns an index that
+     *                                  does not match any shard
+     */
+    private List<DatabaseClient> route(Map<String, Object> bindings) {
+        Collection<Integer> indexes = this.shardRouter.route(Collections.unmodifiableMap(bindings));
+        if (indexes == null || indexes.isEmpty()) {
+            return this.shards;
+        }
+        List<DatabaseClient> targetedShards = new ArrayList<>();
+        for (Integer index : new LinkedHashSet<>(indexes)) {
+            if (index == null || index < 0 || index >= this.shards.size()) {
+                throw new IllegalArgumentException(
+                        String.format("%s routed to shard %s, expected an index between 0 and %d", this.shardRouter,
+                                index, this.shards.size() - 1));
+            }
+            targetedShards.add(this.shards.get(index));
+        }
+        return targetedShards;
+    }
+
+    /**
+     * The interface to be implemented in order to choose the shards a statement
+     * is submitted to
+     */
+    @FunctionalInterface
+    public interface ShardRouter {
+
+        /**
+         * <strong>route</strong> choose the shards a statement is submitted to from
+         * its bind values
+         *
+         * @param bindings the association between bind variables and values
+         * @return the indexes of the targeted shards, or an empty collection to
+         *         target every shard
+         */
+        Collection<Integer> route(Map<String, Object> bindings);
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+
+/**
+ * An in-memory Row backed by a mapping between column names and values, used
+ * to submit synthetic records to the ModelMappers
+ */
+class SyntheticRow implements Row, RowMetadata {
+
+    /**
+     * The column names in the declaration order
+     */
+    private final List<String> names;
+    /**
+     * The mapping between column names and values
+     */
+    private final Map<String, Object> values;
+
+    /**
+     * Instantiate the SyntheticRow with the mapping between column names and
+     * values
+     *
+     * @param values the mapping between column names and values
+     */
+    SyntheticRow(Map<String, Object> values) {
+        this.names = new ArrayList<>(values.keySet());
+        this.values = values;
+    }
+
+    @Override
+    public <T> T get(int index, Class<T> type) {
+        return this.get(this.names.get(index), type);
+    }
+
+    @Override
+    public <T> T get(String name, Class<T> type) {
+        return type.cast(this.values.get(name));
+    }
+
+    @Override
+    public RowMetadata getMetadata() {
+        return this;
+    }
+
+    @Override
+    public ColumnMetadata getColumnMetadata(int index) {
+        return this.getColumnMetadata(this.names.get(index));
+    }
+
+    @Override
+    public ColumnMetadata getColumnMetadata(String name) {
+        Object value = this.values.get(name);
+        Class<?> javaType = value == null ? Object.class : value.getClass();
+        Type type = new Type() {
+
+            @Override
+            public Class<?> getJavaType() {
+                return javaType;
+            }
+
+            @Override
+            public String getName() {
+                return javaType.getSimpleName();
+            }
+        };
+        return new ColumnMetadata() {
+
+            @Override
+            public Type getType() {
+                return type;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    @Override
+    public List<? extends ColumnMetadata> getColumnMetadatas() {
+        List<ColumnMetadata> columnMetadatas = new ArrayList<>();
+        this.names.forEach(name -> columnMetadatas.add(this.getColumnMetadata(name)));
+        return columnMetadatas;
+    }
+
+    @Override
+    @Deprecated
+    public Collection<String> getColumnNames() {
+        return this.names;
+    }
+
+    @Override
+    public boolean contains(String name) {
+        return this.values.containsKey(name);
+    }
+}
@@ -0,0 +1,241 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.mapper;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.springframework.core.GenericTypeResolver;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.LazyDataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.TreeDataGroupModel;
+
+/**
+ * A registry of precompiled ModelMapperSets, one for each target class
+ * <p>
+ * Each ModelMapperSet is validated when registered, so that misconfigurations
+ * such as two ModelMappers emitting the same DataModel class or cyclic
+ * DataGroupModels are reported at startup rather than at request time.
+ * </p>
+ */
+public class ModelMapperRegistry {
+
+    /**
+     * The association between each target class and its ModelMapperSet
+     */
+    private final Map<Class<? extends DataModel>, ModelMapperSet> modelMapperSets;
+    /**
+     * The association between each target class and the synthetic records used
+     * to warm it up
+     */
+    private final Map<Class<? extends DataModel>, List<Map<String, Object>>> warmUpRecords;
+
+    /**
+     * Empty constructor to initialize the registry
+     */
+    public ModelMapperRegistry() {
+        this.modelMapperSets = new ConcurrentHashMap<>();
+        this.warmUpRecords = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * <strong>register</strong> validate and register the ModelMappers used to
+     * select tClass
+     * <p>
+     * The DataGroupModels are ordered starting from the ones whose base is tClass
+     * and descending the association graph, so that the order does not depend on
+     * the order in which the ModelMappers are declared.
+     * </p>
+     *
+     * @param tClass       the target class
+     * @param modelMappers the array of ModelMappers
+     * @return the registered ModelMapperSet
+     * @throws IllegalArgumentException if no ModelMapper emits tClass, if two
+     *                                  ModelMappers emit the same class, if a
+     *                                  DataGroupModel references a class no
+     *                                  ModelMapper emits or if the DataGroupModels
+     *                                  define a cycle
+     */
+    public ModelMapperSet register(Class<? extends DataModel> tClass, ModelMapper... modelMappers) {
+        Set<Class<?>> emittedClasses = this.validateEmittedClasses(tClass, modelMappers);
+        List<DataGroupModel> dataGroupModels = ModelMapperSet.of(modelMappers).getDataGroupModels();
+        this.validateDataGroupModels(tClass, emittedClasses, dataGroupModels);
+        ModelMapperSet modelMapperSet = ModelMapperSet.of(modelMappers, this.order(tClass, dataGroupModels));
+        this.modelMapperSets.put(tClass, modelMapperSet);
+        return modelMapperSet;
+    }
+
+    /**
+     * <strong>registerWarmUp</strong> register the synthetic records used to warm
+     * up the processing of tClass
+     * <p>
+     * Each record is a mapping between the column names and their values, as they
+     * would be returned by the select statement.
+     * </p>
+     *
+     * @param tClass  the target class
+     * @param records the synthetic records
+     */
+    public void registerWarmUp(Class<? extends DataModel> tClass, List<Map<String, Object>> records) {
+        if (!this.modelMapperSets.containsKey(tClass)) {
+            throw new IllegalArgumentException("No ModelMapper registered for " + tClass.getName());
+        }
+        this.warmUpRecords.put(tClass, Collections.unmodifiableList(new LinkedList<>(records)));
+    }
+
+    /**
+     * <strong>get</strong> retrieve the ModelMapperSet registered for tClass
+     *
+     * @param tClass the target class
+     * @return the ModelMapperSet
+     * @throws IllegalArgumentException if no ModelMapperSet is registered for
+     *                                  tClass
+     */
+    public ModelMapperSet get(Class<? extends DataModel> tClass) {
+        ModelMapperSet modelMapperSet = this.modelMapperSets.get(tClass);
+        if (modelMapperSet == null) {
+            throw new IllegalArgumentException("No ModelMapper registered for " + tClass.getName());
+        }
+        return modelMapperSet;
+    }
+
+    /**
+     * <strong>getWarmUpRecords</strong> retrieve the synthetic records registered
+     * for each target class
+     *
+     * @return the unmodifiable association between target classes and synthetic
+     *         records
+     */
+    public Map<Class<? extends DataModel>, List<Map<String, Object>>> getWarmUpRecords() {
+        return Collections.unmodifiableMap(this.warmUpRecords);
+    }
+
+    /**
+     * <strong>resolveDataModelClass</strong> resolve the DataModel class emitted by
+     * a ModelMapper from its generic declaration
+     *
+     * @param modelMapper the ModelMapper
+     * @return the DataModel class or null if it cannot be resolved
+     */
+    public static Class<?> resolveDataModelClass(ModelMapper<?> modelMapper) {
+        return GenericTypeResolver.resolveTypeArgument(modelMapper.getClass(), ModelMapper.class);
+    }
+
+    /**
+     * <strong>validateEmittedClasses</strong> check that each ModelMapper emits a
+     * different class and that one of them emits tClass
+     *
+     * @param tClass       the target class
+     * @param modelMappers the array of ModelMappers
+     * @return the set of emitted classes
+     */
+    private Set<Class<?>> validateEmittedClasses(Class<? extends DataModel> tClass, ModelMapper... modelMappers) {
+        Map<Class<?>, ModelMapper<?>> emitters = new HashMap<>();
+        for (ModelMapper<?> modelMapper : modelMappers) {
+            Class<?> emittedClass = resolveDataModelClass(modelMapper);
+            if (emittedClass == null) { // Raw implementations cannot be validated
+                continue;
+            }
+            ModelMapper<?> previous = emitters.putIfAbsent(emittedClass, modelMapper);
+            if (previous != null) {
+                throw new IllegalArgumentException(String.format("%s and %s both emit %s",
+                        previous.getClass().getName(), modelMapper.getClass().getName(), emittedClass.getName()));
+            }
+        }
+        boolean isUnresolved = emitters.size() < modelMappers.length;
+        if (!isUnresolved && !emitters.containsKey(tClass)) {
+            throw new IllegalArgumentException("No ModelMapper emits " + tClass.getName());
+        }
+        return isUnresolved ? null : emitters.keySet();
+    }
+
+    /**
+     * <strong>validateDataGroupModels</strong> check that each DataGroupModel
+     * references emitted classes and that no cycle exists between them
+     *
+     * @param tClass          the target class
+     * @param emittedClasses  the set of emitted classes or null if some of them
+     *                        could not be resolved
+     * @param dataGroupModels the list of DataGroupModels
+     */
+    private void validateDataGroupModels(Class<? extends DataModel> tClass, Set<Class<?>> emittedClasses,
+            List<DataGroupModel> dataGroupModels) {
+        Map<Class<?>, Set<Class<?>>> graph = new HashMap<>();
+        for (DataGroupModel dataGroupModel : dataGroupModels) {
+            Class<?> base = dataGroupModel.base();
+            Class<?> collectable = dataGroupModel.collectable();
+            // Lazy collectables are loaded by their own ModelMappers and never grouped
+            boolean isLazy = dataGroupModel instanceof LazyDataGroupModel;
+            boolean isEmitted = emittedClasses == null
+                    || (emittedClasses.contains(base) && (isLazy || emittedClasses.contains(collectable)));
+            if (!isEmitted) {
+                throw new IllegalArgumentException(String.format("%s groups classes not emitted by the ModelMappers of %s",
+                        dataGroupModel.getClass().getName(), tClass.getName()));
+            }
+            // Trees are assembled by QueryResultProcessor::selectTree and never grouped
+            if (isLazy || dataGroupModel instanceof TreeDataGroupModel)
+                continue;
+            graph.computeIfAbsent(base, key -> new HashSet<>()).add(collectable);
+        }
+        Set<Class<?>> visited = new HashSet<>();
+        for (Class<?> node : graph.keySet()) {
+            this.detectCycle(node, graph, visited, new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * <strong>detectCycle</strong> perform a depth first visit of the association
+     * graph starting from node
+     *
+     * @param node    the current node
+     * @param graph   the association between bases and collectables
+     * @param visited the nodes already visited without finding a cycle
+     * @param path    the nodes on the current path
+     */
+    private void detectCycle(Class<?> node, Map<Class<?>, Set<Class<?>>> graph, Set<Class<?>> visited,
+            Set<Class<?>> path) {
+        if (visited.contains(node))
+            return;
+        if (!path.add(node)) {
+            String cycle = path.stream().map(Class::getSimpleName).collect(Collectors.joining(" -> "));
+            throw new IllegalArgumentException("Cyclic DataGroupModels: " + cycle + " -> " + node.getSimpleName());
+        }
+        for (Class<?> next : graph.getOrDefault(node, Collections.emptySet())) {
+            this.detectCycle(next, graph, visited, path);
+        }
+        path.remove(node);
+        visited.add(node);
+    }
+
+    /**
+     * <strong>order</strong> order the DataGroupModels breadth first starting from
+     * tClass, appending the ones not reachable from tClass in declaration order
+     *
+     * @param tClass          the target class
+     * @param dataGroupModels the list of DataGroupModels
+     * @return the ordered list of DataGroupModels
+     */
+    private List<DataGroupModel> order(Class<? extends DataModel> tClass, List<DataGroupModel> dataGroupModels) {
+        Map<Class<?>, List<DataGroupModel>> byBase = new LinkedHashMap<>();
+        dataGroupModels.forEach(dataGroupModel -> byBase
+                .computeIfAbsent(dataGroupModel.base(), key -> new LinkedList<>()).add(dataGroupModel));
+        List<DataGroupModel> ordered = new LinkedList<>();
+        LinkedList<Class<?>> queue = new LinkedList<>(Collections.singletonList(tClass));
+        while (!queue.isEmpty()) {
+            List<DataGroupModel> level = byBase.remove(queue.poll());
+            if (level == null)
+                continue;
+            ordered.addAll(level);
+            level.stream().map(DataGroupModel::collectable).forEach(queue::add);
+        }
+        byBase.values().forEach(ordered::addAll);
+        return ordered;
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.mapper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataGroupModel;
+
+/**
+ * An immutable set of ModelMappers together with the DataGroupModels they
+ * declare, so that the DataGroupModels are collected once instead of on every
+ * query
+ */
+public final class ModelMapperSet {
+
+    /**
+     * The array of ModelMappers
+     */
+    private final ModelMapper[] modelMappers;
+    /**
+     * The list of DataGroupModels derived by the set of ModelMappers
+     */
+    private final List<DataGroupModel> dataGroupModels;
+
+    /**
+     * Private constructor to prevent external code to create an instance of the
+     * class
+     *
+     * @param modelMappers    the array of ModelMappers
+     * @param dataGroupModels the list of DataGroupModels
+     */
+    private ModelMapperSet(ModelMapper[] modelMappers, List<DataGroupModel> dataGroupModels) {
+        // Copy the arguments, so that the caller cannot alter the set afterwards
+        this.modelMappers = modelMappers.clone();
+        this.dataGroupModels = Collections.unmodifiableList(new LinkedList<>(dataGroupModels));
+    }
+
+    /**
+     * <strong>of</strong> create a ModelMapperSet collecting the DataGroupModels of
+     * each ModelMapper in the declaration order
+     *
+     * @param modelMappers the array of ModelMappers
+     * @return the ModelMapperSet
+     */
+    public static ModelMapperSet of(ModelMapper... modelMappers) {
+        List<DataGroupModel> dataGroupModels = new LinkedList<>();
+        Arrays.stream(modelMappers).map(ModelMapper::getDataGroupModels)
+                .filter(Objects::nonNull).filter(list -> !list.isEmpty())
+                .collect(Collectors.toList()).forEach(dataGroupModels::addAll);
+        return new ModelMapperSet(modelMappers, dataGroupModels);
+    }
+
+    /**
+     * <strong>of</strong> create a ModelMapperSet with an already computed list of
+     * DataGroupModels
+     *
+     * @param modelMappers    the array of ModelMappers
+     * @param dataGroupModels the list of DataGroupModels
+     * @return the ModelMapperSet
+     */
+    static ModelMapperSet of(ModelMapper[] modelMappers, List<DataGroupModel> dataGroupModels) {
+        return new ModelMapperSet(modelMappers, dataGroupModels);
+    }
+
+    /**
+     * <strong>getModelMappers</strong> retrieve the array of ModelMappers
+     *
+     * @return a copy of the array of ModelMappers
+     */
+    public ModelMapper[] getModelMappers() {
+        return this.modelMappers.clone();
+    }
+
+    /**
+     * <strong>getDataGroupModels</strong> retrieve the list of DataGroupModels
+     *
+     * @return the unmodifiable list of DataGroupModels
+     */
+    public List<DataGroupModel> getDataGroupModels() {
+        return this.dataGroupModels;
+    }
+}
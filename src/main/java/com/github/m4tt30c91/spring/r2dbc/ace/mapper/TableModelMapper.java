@@ -0,0 +1,45 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.mapper;
+
+import java.util.Map;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataModel;
+
+/**
+ * The interface to be implemented by ModelMappers that declare the table and
+ * the columns they read, so that the select sql statement can be generated by
+ * QuerySelectorEngine::select
+ *
+ * @param <T> the DataModel
+ */
+public interface TableModelMapper<T extends DataModel> extends ModelMapper<T> {
+
+    /**
+     * <strong>table</strong> retrieve the table the DataModel is read from
+     *
+     * @return the table name
+     */
+    String table();
+
+    /**
+     * <strong>tableAlias</strong> retrieve the alias of the table, which must be
+     * unique among the ModelMappers of the same statement
+     *
+     * @return the table alias
+     */
+    String tableAlias();
+
+    /**
+     * <strong>columns</strong> retrieve the columns read by ModelMapper::map
+     *
+     * @return the association between each column alias, as read from the row,
+     *         and the column of the table
+     */
+    Map<String, String> columns();
+
+    /**
+     * <strong>keyColumn</strong> retrieve the column holding the key of the
+     * DataModel
+     *
+     * @return the key column of the table
+     */
+    String keyColumn();
+}
@@ -0,0 +1,66 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.model;
+
+/**
+ * The interface to be implemented by DataGroupModels that declare how the
+ * table of the collectable is joined to the table of the base, so that the
+ * select sql statement can be generated by QuerySelectorEngine::select
+ * <p>
+ * The collectable table is joined on <em>base.baseColumn =
+ * collectable.collectableColumn</em>, or through the link table on
+ * <em>base.baseColumn = link.linkBaseColumn</em> and <em>link.linkCollectableColumn
+ * = collectable.collectableColumn</em> if JoinDataGroupModel::linkTable is not
+ * null.
+ * </p>
+ *
+ * @param <B> the base class
+ * @param <C> the collectable class
+ */
+public interface JoinDataGroupModel<B extends DataModel, C extends DataModel> extends DataGroupModel<B, C> {
+
+    /**
+     * <strong>baseColumn</strong> retrieve the joined column of the base table
+     *
+     * @return the column of the base table
+     */
+    String baseColumn();
+
+    /**
+     * <strong>collectableColumn</strong> retrieve the joined column of the
+     * collectable table
+     *
+     * @return the column of the collectable table
+     */
+    String collectableColumn();
+
+    /**
+     * <strong>linkTable</strong> retrieve the table linking bases and
+     * collectables in many-to-many associations
+     *
+     * @return the link table or null if the tables are joined directly
+     */
+    default String linkTable() {
+        return null;
+    }
+
+    /**
+     * <strong>linkBaseColumn</strong> retrieve the column of the link table
+     * referencing the base table
+     *
+     * @return the column of the link table or null if the tables are joined
+     *         directly
+     */
+    default String linkBaseColumn() {
+        return null;
+    }
+
+    /**
+     * <strong>linkCollectableColumn</strong> retrieve the column of the link table
+     * referencing the collectable table
+     *
+     * @return the column of the link table or null if the tables are joined
+     *         directly
+     */
+    default String linkCollectableColumn() {
+        return null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.model;
+
+import java.util.List;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapper;
+import reactor.core.publisher.Mono;
+
+/**
+ * The interface to be implemented by entities that define a lazy grouping
+ * association between DataModels
+ * <p>
+ * The collectables of a lazy association are not expected to be joined in the
+ * select statement of the base. Each base found in the result receives instead
+ * a deferred handle that, once subscribed, loads the collectables of all the
+ * bases of the same result with a single select statement, and sets them to the
+ * base through DataGroupModel::setCollectables as well.
+ * </p>
+ *
+ * @param <B> the base class
+ * @param <C> the collectable class
+ */
+public interface LazyDataGroupModel<B extends DataModel, C extends DataModel> extends DataGroupModel<B, C> {
+
+    /**
+     * The name of the bind variable holding the keys of the bases
+     */
+    String KEYS = "keys";
+
+    /**
+     * <strong>sql</strong> retrieve the select sql statement that loads the
+     * collectables
+     * <p>
+     * The statement must filter the collectables through the bind variable
+     * <em>:keys</em>, e.g. <em>WHERE b.author_id IN (:keys)</em>
+     * </p>
+     *
+     * @return the select sql statement
+     */
+    String sql();
+
+    /**
+     * <strong>getModelMappers</strong> retrieve the ModelMappers applied to the
+     * records of the select sql statement
+     *
+     * @return the array of ModelMappers
+     */
+    ModelMapper[] getModelMappers();
+
+    /**
+     * <strong>baseKey</strong> retrieve the key bound to <em>:keys</em> for the
+     * base
+     *
+     * @param base the base
+     * @return the key of the base
+     */
+    Object baseKey(B base);
+
+    /**
+     * <strong>collectableKey</strong> retrieve the key of the base the collectable
+     * belongs to
+     *
+     * @param collectable the collectable
+     * @return the key of the base
+     */
+    Object collectableKey(C collectable);
+
+    /**
+     * <strong>setLazyCollectables</strong> set the deferred handle to the
+     * collectables in base
+     *
+     * @param base         the base
+     * @param collectables the deferred handle to the collectables
+     */
+    void setLazyCollectables(B base, Mono<List<C>> collectables);
+}
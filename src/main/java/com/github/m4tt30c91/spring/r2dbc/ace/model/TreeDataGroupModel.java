@@ -0,0 +1,39 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.model;
+
+/**
+ * The interface to be implemented by entities that define a self-referencing
+ * grouping association, where each DataModel collects its children of the same
+ * class
+ * <p>
+ * A tree is not grouped by QueryResultProcessor::selectMany, since each record
+ * holds a single node of the class: each node references instead its parent
+ * through TreeDataGroupModel::parentIdentifier, as an adjacency list stored in
+ * a parent_id column does, and the whole hierarchy is assembled by
+ * QueryResultProcessor::selectTree, e.g. from the result of a
+ * <em>WITH RECURSIVE</em> select statement.
+ * </p>
+ *
+ * @param <T> the node class
+ */
+public interface TreeDataGroupModel<T extends DataModel> extends DataGroupModel<T, T> {
+
+    /**
+     * <strong>collectable</strong> retrieve the collectable class of the grouping
+     * association, that is the base class itself
+     *
+     * @return the base class
+     */
+    @Override
+    default Class<T> collectable() {
+        return this.base();
+    }
+
+    /**
+     * <strong>parentIdentifier</strong> retrieve the DataModel::uniqueIdentifier of
+     * the parent of the node
+     *
+     * @param node the node
+     * @return the unique identifier of the parent or null if the node is a root
+     */
+    String parentIdentifier(T node);
+}
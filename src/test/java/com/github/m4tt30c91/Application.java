@@ -1,7 +1,17 @@
 package com.github.m4tt30c91;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+
+import com.github.m4tt30c91.spring.r2dbc.ace.autoconfigure.ModelMapperRegistrar;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.AuthorModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.BookModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.AuthorDataModel;
 
 @SpringBootApplication
 public class Application {
@@ -9,5 +19,27 @@ public class Application {
     public static void main(String[] args) {
         SpringApplication.run(Application.class, args);
     }
+
+    @Bean
+    public ModelMapperRegistrar authorModelMapperRegistrar() {
+        return modelMapperRegistry -> {
+            modelMapperRegistry.register(AuthorDataModel.class, new AuthorModelMapper(), new BookModelMapper());
+            modelMapperRegistry.registerWarmUp(AuthorDataModel.class,
+                    Arrays.asList(record(1, "J. R. R.", "Tolkien", 1, "The Two Towers"),
+                            record(1, "J. R. R.", "Tolkien", 2, "The Return of the King")));
+        };
+    }
+
+    private static Map<String, Object> record(int authorId, String firstName, String lastName, int bookId,
+            String bookTitle) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("authorId", authorId);
+        record.put("firstName", firstName);
+        record.put("lastName", lastName);
+        record.put("bookId", bookId);
+        record.put("bookTitle", bookTitle);
+        record.put("bookAuthorId", authorId);
+        return record;
+    }
     
 }
@@ -0,0 +1,94 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.Assert;
+
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.AuthorModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.BookModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.AuthorDataModel;
+
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class QueryBatchTest {
+
+    private CountingConnectionFactory connectionFactory;
+    private QuerySelectorEngine querySelectorEngine;
+
+    @BeforeEach
+    public void setUp() {
+        this.connectionFactory = new CountingConnectionFactory(H2ConnectionFactory.inMemory("batch"));
+        TestDatabases.createSchema(DatabaseClient.create(this.connectionFactory),
+                "INSERT INTO author(id, first_name, last_name) VALUES(1, 'J. R. R.', 'Tolkien')",
+                "INSERT INTO book(id, book_title, author_id) VALUES(1, 'The Fellowship of the Ring', 1)",
+                "INSERT INTO author(id, first_name, last_name) VALUES(2, 'J. K.', 'Rowling')",
+                "INSERT INTO book(id, book_title, author_id) VALUES(4, 'Harry Potter and the Philosopher''s Stone', 2)");
+        this.connectionFactory.connections.set(0);
+        this.querySelectorEngine = new QuerySelectorEngine(DatabaseClient.create(this.connectionFactory));
+    }
+
+    @Test
+    public void shouldExecuteSingleConnectionBatchOnOneConnection() {
+        StepVerifier.create(this.executeBatch(QueryBatch.Mode.SINGLE_CONNECTION))
+                .assertNext(results -> Assert.isTrue(3 == results.size(), "Should contain 3 results"))
+                .expectComplete()
+                .verify();
+        Assert.isTrue(1 == this.connectionFactory.connections.get(), "Should create a single connection");
+    }
+
+    @Test
+    public void shouldExecuteConcurrentBatchOnOneConnectionPerStatement() {
+        StepVerifier.create(this.executeBatch(QueryBatch.Mode.CONCURRENT))
+                .assertNext(results -> Assert.isTrue(3 == results.size(), "Should contain 3 results"))
+                .expectComplete()
+                .verify();
+        Assert.isTrue(3 == this.connectionFactory.connections.get(), "Should create a connection per statement");
+    }
+
+    private Mono<QueryBatch.Results> executeBatch(QueryBatch.Mode mode) {
+        QueryBatch queryBatch = this.querySelectorEngine.batch().mode(mode);
+        for (int authorId = 1; authorId <= 3; authorId++) {
+            queryBatch.selectMany(this.querySelectorEngine
+                    .processSql(TestDatabases.AUTHORS_WITH_BOOKS.replace("ORDER BY", "WHERE a.id = :authorId ORDER BY"))
+                    .bind("authorId", authorId),
+                    AuthorDataModel.class, new AuthorModelMapper(), new BookModelMapper());
+        }
+        return queryBatch.execute();
+    }
+
+    /**
+     * A ConnectionFactory counting the connections it creates
+     */
+    private static class CountingConnectionFactory implements ConnectionFactory {
+
+        private final ConnectionFactory connectionFactory;
+        private final AtomicInteger connections;
+
+        private CountingConnectionFactory(ConnectionFactory connectionFactory) {
+            this.connectionFactory = connectionFactory;
+            this.connections = new AtomicInteger();
+        }
+
+        @Override
+        public Publisher<? extends Connection> create() {
+            return Mono.defer(() -> {
+                this.connections.incrementAndGet();
+                return Mono.from(this.connectionFactory.create());
+            });
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return this.connectionFactory.getMetadata();
+        }
+    }
+}
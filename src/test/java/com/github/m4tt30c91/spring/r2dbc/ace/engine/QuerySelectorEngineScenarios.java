@@ -0,0 +1,724 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.util.Pair;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.Assert;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.AuthorLazyBooksModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.AuthorModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.BookModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.CategoryModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.TagModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.Author2BookDataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.AuthorDataModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.BookDataModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.Category2CategoryTreeDataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.CategoryDataModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.LazyDataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.TagDataModel;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+/**
+ * The scenarios of the QuerySelectorEngine run against the embedded H2 database
+ * initialized by schema.sql, with or without a Spring context
+ */
+public abstract class QuerySelectorEngineScenarios {
+
+    protected final DatabaseClient databaseClient;
+
+    protected QuerySelectorEngineScenarios(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Test
+    public void shouldQuerySelectorProcessorBeInitialized() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Assert.notNull(querySelectorEngine, "QuerySelectorEngine should not be null");
+    }
+
+    @Test
+    public void shouldH2BeInitialized() {
+        Flux<String> authors = this.databaseClient
+                .sql("SELECT * FROM author ORDER BY id")
+                .map(row -> row.get("first_name", String.class) + " " + row.get("last_name", String.class))
+                .all();
+        StepVerifier.create(authors)
+                .expectNext("J. R. R. Tolkien")
+                .expectNext("J. K. Rowling")
+                .expectNext("George R. R. Martin")
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldSelectAuhtorWithBooks() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<AuthorDataModel> authorDataModel = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a JOIN book b ON a.id = b.author_id WHERE a.id = :authorId")
+                .bind("authorId", 1)
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .selectOne(AuthorDataModel.class);
+        StepVerifier.create(authorDataModel)
+                .assertNext(dataModel -> {
+                    Assert.isTrue(1 == dataModel.getId(), "Should be author with id 1");
+                    this.assertJRRTalkienAndBooks(dataModel);
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldSelectAllAuthorsWithBooks() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<List<AuthorDataModel>> authorDataModels = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a JOIN book b ON a.id = b.author_id ORDER BY a.id")
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .selectMany(AuthorDataModel.class);
+        StepVerifier.create(authorDataModels)
+                .assertNext(dataModels -> {
+                    Assert.isTrue(2 == dataModels.size(), "Should contain 2 authors");
+                    this.assertAuthorsAndBooks(dataModels);
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldReturnEmpty() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<AuthorDataModel> authorDataModel = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a JOIN book b ON a.id = b.author_id WHERE a.id = :authorId")
+                .bind("authorId", 3)
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .selectOne(AuthorDataModel.class);
+        StepVerifier.create(authorDataModel)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldReturnEmptyList() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<List<AuthorDataModel>> authorDataModels = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a JOIN book b ON a.id = b.author_id WHERE a.id = :authorId order by a.id")
+                .bind("authorId", 3)
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .selectMany(AuthorDataModel.class);
+        StepVerifier.create(authorDataModels)
+                .assertNext(list -> {
+                    Assert.isTrue(list.isEmpty(), "Should contain no author");
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldReturnAllAuthors() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<List<AuthorDataModel>> authorDataModels = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a LEFT JOIN book b ON a.id = b.author_id")
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .selectMany(AuthorDataModel.class);
+        StepVerifier.create(authorDataModels)
+                .assertNext(list -> {
+                    Assert.isTrue(3 == list.size(), "Should contain 3 authors");
+                    this.assertAuthorsAndBooks(list);
+                    AuthorDataModel martin = list.get(2);
+                    String martinFullName = martin.getFirstName() + " " + martin.getLastName();
+                    Assert.isTrue("George R. R. Martin".equals(martinFullName), "Should author with full name 'George R. R. Martin'");
+                    Assert.isNull(martin.getBooks(), "Should have written no books");
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldOffloadGroupingToScheduler() {
+        Scheduler scheduler = Schedulers.newSingle("ace-offload");
+        try {
+            QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient, scheduler, 0);
+            Mono<String> threadName = querySelectorEngine
+                    .processSql(
+                            "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a JOIN book b ON a.id = b.author_id ORDER BY a.id")
+                    .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                    .selectMany(AuthorDataModel.class)
+                    .map(list -> {
+                        this.assertAuthorsAndBooks(list);
+                        return Thread.currentThread().getName();
+                    });
+            StepVerifier.create(threadName)
+                    .assertNext(name -> Assert.isTrue(name.startsWith("ace-offload"),
+                            "Should be grouped on the offload scheduler"))
+                    .expectComplete()
+                    .verify();
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Test
+    public void shouldOffloadStreamingToScheduler() {
+        Scheduler scheduler = Schedulers.newSingle("ace-stream-offload");
+        try {
+            QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient, scheduler, 0);
+            Flux<String> threadNames = querySelectorEngine
+                    .processSql(
+                            "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a LEFT JOIN book b ON a.id = b.author_id ORDER BY a.id")
+                    .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                    .writeNdjson(AuthorDataModel.class, new ObjectMapper(), new DefaultDataBufferFactory())
+                    .map(dataBuffer -> {
+                        DataBufferUtils.release(dataBuffer);
+                        return Thread.currentThread().getName();
+                    });
+            StepVerifier.create(threadNames)
+                    .expectNextCount(3)
+                    .expectComplete()
+                    .verify();
+            StepVerifier.create(threadNames)
+                    .thenConsumeWhile(name -> name.startsWith("ace-stream-offload"))
+                    .expectComplete()
+                    .verify();
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Test
+    public void shouldNotOffloadGroupingBelowThreshold() {
+        Scheduler scheduler = Schedulers.newSingle("ace-offload");
+        try {
+            QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient, scheduler, 0);
+            Mono<String> threadName = querySelectorEngine
+                    .processSql(
+                            "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a JOIN book b ON a.id = b.author_id WHERE a.id = :authorId")
+                    .bind("authorId", 1)
+                    .offloadOn(scheduler, 100)
+                    .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                    .selectOne(AuthorDataModel.class)
+                    .map(author -> {
+                        this.assertJRRTalkienAndBooks(author);
+                        return Thread.currentThread().getName();
+                    });
+            StepVerifier.create(threadName)
+                    .assertNext(name -> Assert.isTrue(!name.startsWith("ace-offload"),
+                            "Should not be grouped on the offload scheduler"))
+                    .expectComplete()
+                    .verify();
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Test
+    public void shouldStreamAllAuthorsWithBooks() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Flux<AuthorDataModel> authorDataModels = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a LEFT JOIN book b ON a.id = b.author_id ORDER BY a.id")
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .streamMany(AuthorDataModel.class);
+        StepVerifier.create(authorDataModels)
+                .assertNext(this::assertJRRTalkienAndBooks)
+                .assertNext(this::asserJKRowlingAndBooks)
+                .assertNext(martin -> Assert.isNull(martin.getBooks(), "Should have written no books"))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldWriteAllAuthorsAsNdjson() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Flux<JsonNode> lines = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a JOIN book b ON a.id = b.author_id ORDER BY a.id")
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .writeNdjson(AuthorDataModel.class, objectMapper, DefaultDataBufferFactory.sharedInstance)
+                .map(dataBuffer -> {
+                    String line = dataBuffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(dataBuffer);
+                    Assert.isTrue(line.endsWith("\n"), "Should end with a new line");
+                    return this.readTree(objectMapper, line);
+                });
+        StepVerifier.create(lines)
+                .assertNext(tolkien -> Assert.isTrue(3 == tolkien.get("books").size(), "Should have written 3 books"))
+                .assertNext(rowling -> Assert.isTrue(7 == rowling.get("books").size(), "Should have written 7 books"))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldWriteAllAuthorsAsJsonArray() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<JsonNode> array = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a LEFT JOIN book b ON a.id = b.author_id ORDER BY a.id")
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .writeJsonArray(AuthorDataModel.class, objectMapper, DefaultDataBufferFactory.sharedInstance)
+                .map(dataBuffer -> {
+                    String chunk = dataBuffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(dataBuffer);
+                    return chunk;
+                })
+                .collect(StringBuilder::new, StringBuilder::append)
+                .map(json -> this.readTree(objectMapper, json.toString()));
+        StepVerifier.create(array)
+                .assertNext(authors -> {
+                    Assert.isTrue(3 == authors.size(), "Should contain 3 authors");
+                    Assert.isTrue("Martin".equals(authors.get(2).get("lastName").asText()),
+                            "Should be author with last name 'Martin'");
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldWriteEmptyJsonArray() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<String> array = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a JOIN book b ON a.id = b.author_id WHERE a.id = :authorId")
+                .bind("authorId", 3)
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .writeJsonArray(AuthorDataModel.class, new ObjectMapper(), DefaultDataBufferFactory.sharedInstance)
+                .map(dataBuffer -> dataBuffer.toString(StandardCharsets.UTF_8))
+                .collect(StringBuilder::new, StringBuilder::append)
+                .map(StringBuilder::toString);
+        StepVerifier.create(array)
+                .expectNext("[]")
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldShareTagsAcrossBooks() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<List<BookDataModel>> bookDataModels = querySelectorEngine
+                .processSql(
+                        "SELECT b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId, t.id AS tagId, t.name AS tagName FROM book b JOIN book_tag bt ON b.id = bt.book_id JOIN tag t ON t.id = bt.tag_id ORDER BY b.id")
+                .applyModelMappers(new BookModelMapper(), new TagModelMapper())
+                .selectMany(BookDataModel.class);
+        StepVerifier.create(bookDataModels)
+                .assertNext(books -> {
+                    Assert.isTrue(10 == books.size(), "Should contain 10 books");
+                    TagDataModel fantasy = books.get(0).getTags().get(0);
+                    Assert.isTrue("Fantasy".equals(fantasy.getName()), "Should be tagged 'Fantasy'");
+                    for (BookDataModel book : books) {
+                        Assert.isTrue(2 == book.getTags().size(), "Should have 2 tags");
+                        Assert.isTrue(fantasy == book.getTags().get(0), "Should share the same 'Fantasy' instance");
+                    }
+                    Assert.isTrue(books.get(0).getTags().get(1) == books.get(2).getTags().get(1),
+                            "Should share the same 'Epic' instance");
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldLoadLazyBooks() {
+        AtomicInteger statements = new AtomicInteger();
+        QuerySelectorEngine querySelectorEngine = this.countingEngine(statements);
+        Mono<List<AuthorDataModel>> authorDataModels = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName FROM author a ORDER BY a.id")
+                .applyModelMappers(new AuthorLazyBooksModelMapper())
+                .selectMany(AuthorDataModel.class)
+                .flatMap(authors -> Flux.fromIterable(authors)
+                        .concatMap(AuthorDataModel::getLazyBooks)
+                        .then(Mono.just(authors)));
+        StepVerifier.create(authorDataModels)
+                .assertNext(list -> {
+                    Assert.isTrue(3 == list.size(), "Should contain 3 authors");
+                    this.assertAuthorsAndBooks(list);
+                    Assert.isTrue(list.get(2).getBooks().isEmpty(), "Should have written no books");
+                })
+                .expectComplete()
+                .verify();
+        Assert.isTrue(2 == statements.get(), "Should load the lazy books of every author by one statement");
+    }
+
+    @Test
+    public void shouldLoadLazyBooksOncePerStreamedWindow() {
+        AtomicInteger statements = new AtomicInteger();
+        QuerySelectorEngine querySelectorEngine = this.countingEngine(statements);
+        Flux<AuthorDataModel> authorDataModels = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName FROM author a ORDER BY a.id")
+                .applyModelMappers(new AuthorLazyBooksModelMapper())
+                .streamMany(AuthorDataModel.class, 2)
+                .concatMap(author -> author.getLazyBooks().thenReturn(author));
+        StepVerifier.create(authorDataModels)
+                .assertNext(this::assertJRRTalkienAndBooks)
+                .assertNext(this::asserJKRowlingAndBooks)
+                .assertNext(martin -> Assert.isTrue(martin.getBooks().isEmpty(), "Should have written no books"))
+                .expectComplete()
+                .verify();
+        Assert.isTrue(3 == statements.get(), "Should load the lazy books once per window of 2 authors");
+    }
+
+    @Test
+    public void shouldRetryFailedLazyLoad() {
+        AtomicInteger failures = new AtomicInteger(1);
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient) {
+            @Override
+            protected Flux<Map<Class<? extends DataModel>, DataModel>> execute(String sql,
+                    Map<String, Object> bindings, ModelMapper... modelMappers) {
+                if (bindings.containsKey(LazyDataGroupModel.KEYS) && failures.getAndDecrement() > 0) {
+                    return Flux.error(new IllegalStateException("Lazy load failed"));
+                }
+                return super.execute(sql, bindings, modelMappers);
+            }
+        };
+        AuthorDataModel tolkien = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName FROM author a WHERE a.id = :authorId")
+                .bind("authorId", 1)
+                .applyModelMappers(new AuthorLazyBooksModelMapper())
+                .selectOne(AuthorDataModel.class)
+                .block();
+        StepVerifier.create(tolkien.getLazyBooks())
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(tolkien.getLazyBooks())
+                .assertNext(books -> Assert.isTrue(3 == books.size(), "Should have written 3 books"))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldNotLoadLazyBooksUnlessSubscribed() {
+        AtomicInteger statements = new AtomicInteger();
+        QuerySelectorEngine querySelectorEngine = this.countingEngine(statements);
+        Mono<AuthorDataModel> authorDataModel = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName FROM author a WHERE a.id = :authorId")
+                .bind("authorId", 1)
+                .applyModelMappers(new AuthorLazyBooksModelMapper())
+                .selectOne(AuthorDataModel.class);
+        StepVerifier.create(authorDataModel)
+                .assertNext(author -> {
+                    Assert.isNull(author.getBooks(), "Should not have loaded the books");
+                    Assert.notNull(author.getLazyBooks(), "Should have a lazy handle to the books");
+                })
+                .expectComplete()
+                .verify();
+        Assert.isTrue(1 == statements.get(), "Should not select the books");
+    }
+
+    @Test
+    public void shouldExecuteBatchConcurrently() {
+        this.shouldExecuteBatch(QueryBatch.Mode.AUTO);
+    }
+
+    @Test
+    public void shouldExecuteBatchOnSingleConnection() {
+        this.shouldExecuteBatch(QueryBatch.Mode.SINGLE_CONNECTION);
+    }
+
+    private void shouldExecuteBatch(QueryBatch.Mode mode) {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<QueryBatch.Results> results = querySelectorEngine.batch()
+                .mode(mode)
+                .selectMany(querySelectorEngine.processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a JOIN book b ON a.id = b.author_id ORDER BY a.id"),
+                        AuthorDataModel.class, new AuthorModelMapper(), new BookModelMapper())
+                .selectMany(querySelectorEngine.processSql(
+                        "SELECT b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId, t.id AS tagId, t.name AS tagName FROM book b JOIN book_tag bt ON b.id = bt.book_id JOIN tag t ON t.id = bt.tag_id WHERE b.author_id = :authorId ORDER BY b.id")
+                        .bind("authorId", 1),
+                        BookDataModel.class, new BookModelMapper(), new TagModelMapper())
+                .execute();
+        StepVerifier.create(results)
+                .assertNext(batch -> {
+                    Assert.isTrue(2 == batch.size(), "Should contain 2 results");
+                    List<AuthorDataModel> authors = batch.get(0, AuthorDataModel.class);
+                    Assert.isTrue(2 == authors.size(), "Should contain 2 authors");
+                    this.assertAuthorsAndBooks(authors);
+                    List<BookDataModel> books = batch.get(1, BookDataModel.class);
+                    Assert.isTrue(3 == books.size(), "Should contain 3 books");
+                    Assert.isTrue(2 == books.get(0).getTags().size(), "Should have 2 tags");
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldCountBooksByAuthor() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<List<Pair<AuthorDataModel, Long>>> bookCounts = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId, t.id AS tagId, t.name AS tagName FROM author a LEFT JOIN book b ON a.id = b.author_id LEFT JOIN book_tag bt ON b.id = bt.book_id LEFT JOIN tag t ON t.id = bt.tag_id ORDER BY a.id")
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper(), new TagModelMapper())
+                .reduceMany(AuthorDataModel.class, new Author2BookDataGroupModel(), Collectors.counting());
+        StepVerifier.create(bookCounts)
+                .assertNext(list -> {
+                    Assert.isTrue(3 == list.size(), "Should contain 3 authors");
+                    Assert.isTrue(3L == list.get(0).getSecond(), "Should have written 3 books");
+                    Assert.isTrue(7L == list.get(1).getSecond(), "Should have written 7 books");
+                    Assert.isTrue(0L == list.get(2).getSecond(), "Should have written no books");
+                    Assert.isNull(list.get(0).getFirst().getBooks(), "Should not collect the books");
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldStreamBookCountsByAuthor() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Flux<Pair<AuthorDataModel, Long>> bookCounts = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId, t.id AS tagId, t.name AS tagName FROM author a LEFT JOIN book b ON a.id = b.author_id LEFT JOIN book_tag bt ON b.id = bt.book_id LEFT JOIN tag t ON t.id = bt.tag_id ORDER BY a.id")
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper(), new TagModelMapper())
+                .streamReduceMany(AuthorDataModel.class, new Author2BookDataGroupModel(), Collectors.counting());
+        StepVerifier.create(bookCounts)
+                .assertNext(pair -> Assert.isTrue(3L == pair.getSecond(), "Should have written 3 books"))
+                .assertNext(pair -> Assert.isTrue(7L == pair.getSecond(), "Should have written 7 books"))
+                .assertNext(pair -> Assert.isTrue(0L == pair.getSecond(), "Should have written no books"))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldSelectTopBooksByAuthor() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<List<Pair<AuthorDataModel, List<String>>>> topBooks = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a JOIN book b ON a.id = b.author_id ORDER BY a.id")
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .reduceMany(AuthorDataModel.class, new Author2BookDataGroupModel(), Collectors.collectingAndThen(
+                        Collectors.toList(), books -> books.stream()
+                                .sorted(Comparator.comparing(BookDataModel::getBookTitle))
+                                .limit(2)
+                                .map(BookDataModel::getBookTitle)
+                                .collect(Collectors.toList())));
+        StepVerifier.create(topBooks)
+                .assertNext(list -> {
+                    Assert.isTrue(2 == list.size(), "Should contain 2 authors");
+                    Assert.isTrue(List.of("The Fellowship of the Ring", "The Return of the King")
+                            .equals(list.get(0).getSecond()), "Should select the first 2 titles");
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldSelectTreeFromRecursiveQuery() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<List<CategoryDataModel>> roots = querySelectorEngine
+                .processSql(
+                        "WITH RECURSIVE tree(id, name, parent_id) AS (SELECT id, name, parent_id FROM category WHERE id = :rootId UNION ALL SELECT c.id, c.name, c.parent_id FROM category c JOIN tree t ON c.parent_id = t.id) SELECT id AS categoryId, name AS categoryName, parent_id AS parentId FROM tree ORDER BY id DESC")
+                .bind("rootId", 1)
+                .applyModelMappers(new CategoryModelMapper())
+                .selectTree(new Category2CategoryTreeDataGroupModel());
+        StepVerifier.create(roots)
+                .assertNext(list -> {
+                    Assert.isTrue(1 == list.size(), "Should contain 1 root");
+                    CategoryDataModel books = list.get(0);
+                    Assert.isTrue("Books".equals(books.getName()), "Should be rooted at 'Books'");
+                    Assert.isTrue(2 == books.getChildren().size(), "Should contain 2 children");
+                    CategoryDataModel fiction = books.getChildren().stream()
+                            .filter(category -> "Fiction".equals(category.getName())).findFirst().get();
+                    Assert.isTrue(2 == fiction.getChildren().size(), "Should contain 2 grandchildren");
+                    Assert.isNull(fiction.getChildren().get(0).getChildren(), "Should be a leaf");
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldRejectTreeCycles() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<List<CategoryDataModel>> roots = querySelectorEngine
+                .processSql(
+                        "SELECT categoryId, categoryName, parentId FROM (VALUES (1, 'Books', NULL), (2, 'Fiction', 3), (3, 'Fantasy', 2), (4, 'Epic', 3)) AS t(categoryId, categoryName, parentId)")
+                .applyModelMappers(new CategoryModelMapper())
+                .selectTree(new Category2CategoryTreeDataGroupModel());
+        StepVerifier.create(roots)
+                .expectErrorMatches(error -> error instanceof IllegalStateException
+                        && error.getMessage().contains("[2, 3, 4]"))
+                .verify();
+    }
+
+    @Test
+    public void shouldSelectSubtreesAndIgnoreTreeInSelectMany() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<List<CategoryDataModel>> roots = querySelectorEngine
+                .processSql(
+                        "SELECT id AS categoryId, name AS categoryName, parent_id AS parentId FROM category WHERE id <> 1 ORDER BY id")
+                .applyModelMappers(new CategoryModelMapper())
+                .selectTree(new Category2CategoryTreeDataGroupModel());
+        StepVerifier.create(roots)
+                .assertNext(list -> Assert.isTrue(List.of("Fiction", "Non-fiction", "Music")
+                        .equals(list.stream().map(CategoryDataModel::getName).collect(Collectors.toList())),
+                        "Should consider the nodes without parent in the records as roots"))
+                .expectComplete()
+                .verify();
+        Mono<List<CategoryDataModel>> categories = querySelectorEngine
+                .processSql("SELECT id AS categoryId, name AS categoryName, parent_id AS parentId FROM category")
+                .applyModelMappers(new CategoryModelMapper())
+                .selectMany(CategoryDataModel.class);
+        StepVerifier.create(categories)
+                .assertNext(list -> {
+                    Assert.isTrue(6 == list.size(), "Should contain 6 categories");
+                    Assert.isTrue(list.stream().allMatch(category -> category.getChildren() == null),
+                            "Should not group the tree");
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldGenerateMinimalSelect() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        String sql = querySelectorEngine.select(AuthorDataModel.class, new AuthorModelMapper(), new BookModelMapper())
+                .where("a.id = :authorId")
+                .orderByKey()
+                .getSql();
+        Assert.isTrue(("SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, "
+                + "b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a LEFT JOIN book b ON a.id = b.author_id "
+                + "WHERE (a.id = :authorId) ORDER BY a.id").equals(sql), "Should generate the minimal select");
+        Assert.isTrue(sql.equals(querySelectorEngine.select(AuthorDataModel.class, new AuthorModelMapper(),
+                new BookModelMapper()).where("a.id = :authorId").orderByKey().getSql()), "Should reuse the select");
+        Assert.isTrue(sql.replace(" WHERE (a.id = :authorId)", "").equals(querySelectorEngine
+                .select(AuthorDataModel.class, new AuthorModelMapper(), new BookModelMapper()).orderByKey().getSql()),
+                "Should append the predicates to the cached select");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> querySelectorEngine
+                .select(AuthorDataModel.class, new AuthorModelMapper(), new TagModelMapper()).getSql());
+    }
+
+    @Test
+    public void shouldGenerateSelectFromDeclaredMetadata() {
+        class AliasedAuthorModelMapper extends AuthorModelMapper {
+
+            private final String tableAlias;
+
+            AliasedAuthorModelMapper(String tableAlias) {
+                this.tableAlias = tableAlias;
+            }
+
+            @Override
+            public String tableAlias() {
+                return this.tableAlias;
+            }
+        }
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Assert.isTrue(querySelectorEngine.select(AuthorDataModel.class, new AliasedAuthorModelMapper("a")).getSql()
+                .endsWith("FROM author a"), "Should alias the table as a");
+        Assert.isTrue(querySelectorEngine.select(AuthorDataModel.class, new AliasedAuthorModelMapper("x")).getSql()
+                .endsWith("FROM author x"), "Should not reuse the select of another alias");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> querySelectorEngine
+                .select(AuthorDataModel.class, new AuthorModelMapper(), new AliasedAuthorModelMapper("x")).getSql());
+    }
+
+    @Test
+    public void shouldSelectFromGeneratedSql() {
+        QuerySelectorEngine querySelectorEngine = new QuerySelectorEngine(this.databaseClient);
+        Mono<AuthorDataModel> authorDataModel = querySelectorEngine
+                .select(AuthorDataModel.class, new AuthorModelMapper(), new BookModelMapper(), new TagModelMapper())
+                .where("a.id = :authorId")
+                .processSql()
+                .bind("authorId", 1)
+                .applyModelMappers()
+                .selectOne(AuthorDataModel.class);
+        StepVerifier.create(authorDataModel)
+                .assertNext(tolkien -> {
+                    this.assertJRRTalkienAndBooks(tolkien);
+                    Assert.isTrue(tolkien.getBooks().stream().allMatch(book -> 2 == book.getTags().size()),
+                            "Should have 2 tags for each book");
+                })
+                .expectComplete()
+                .verify();
+        Assertions.assertThrows(IllegalStateException.class, () -> querySelectorEngine
+                .processSql(TestDatabases.AUTHORS_WITH_BOOKS).applyModelMappers());
+    }
+
+    private QuerySelectorEngine countingEngine(AtomicInteger statements) {
+        return new QuerySelectorEngine(this.databaseClient) {
+            @Override
+            protected Flux<Map<Class<? extends DataModel>, DataModel>> execute(String sql,
+                    Map<String, Object> bindings, ModelMapper... modelMappers) {
+                return super.execute(sql, bindings, modelMappers)
+                        .doOnSubscribe(subscription -> statements.incrementAndGet());
+            }
+        };
+    }
+
+    protected void assertAuthorsAndBooks(List<AuthorDataModel> dataModels) {
+        AuthorDataModel tolkien = dataModels.get(0);
+        AuthorDataModel rowling = dataModels.get(1);
+        this.assertJRRTalkienAndBooks(tolkien);
+        this.asserJKRowlingAndBooks(rowling);
+    }
+
+    protected void assertJRRTalkienAndBooks(AuthorDataModel tolkien) {
+        String tolkienFullName = tolkien.getFirstName() + " " + tolkien.getLastName();
+        Assert.isTrue("J. R. R. Tolkien".equals(tolkienFullName),
+                "Should be author with full name 'J. R. R. Tolkien'");
+        Assert.isTrue(3 == tolkien.getBooks().size(), "Should have written 3 books");
+        Assert.isTrue(this.containsBook(tolkien, "The Fellowship of the Ring"),
+                "Should have written 'The Fellowship of the Ring'");
+        Assert.isTrue(this.containsBook(tolkien, "The Two Towers"), "Should have written 'The Two Towers'");
+        Assert.isTrue(this.containsBook(tolkien, "The Return of the King"),
+                "Should have written 'The Return of the King'");
+    }
+
+    protected void asserJKRowlingAndBooks(AuthorDataModel rowling) {
+        String rowlingFullName = rowling.getFirstName() + " " + rowling.getLastName();
+        Assert.isTrue("J. K. Rowling".equals(rowlingFullName),
+                "Should be author with full name 'J. K. Rowling'");
+        Assert.isTrue(7 == rowling.getBooks().size(), "Should have written 7 books");
+        Assert.isTrue(this.containsBook(rowling, "Harry Potter and the Philosopher's Stone"),
+                "Should have written 'Harry Potter and the Philosopher's Stone'");
+        Assert.isTrue(this.containsBook(rowling, "Harry Potter and the Chamber of Secrets"),
+                "Should have written 'Harry Potter and the Chamber of Secrets'");
+        Assert.isTrue(this.containsBook(rowling, "Harry Potter and the Prisoner of Azkaban"),
+                "Should have written 'Harry Potter and the Prisoner of Azkaban'");
+        Assert.isTrue(this.containsBook(rowling, "Harry Potter and the Goblet of Fire"),
+                "Should have written 'Harry Potter and the Goblet of Fire'");
+        Assert.isTrue(this.containsBook(rowling, "Harry Potter and the Order of the Phoenix"),
+                "Should have written 'Harry Potter and the Order of the Phoenix'");
+        Assert.isTrue(this.containsBook(rowling, "Harry Potter and the Half-Blood Prince"),
+                "Should have written 'Harry Potter and the Half-Blood Prince'");
+        Assert.isTrue(this.containsBook(rowling, "Harry Potter and the Deathly Hallows"),
+                "Should have written 'Harry Potter and the Deathly Hallows'");
+    }
+
+    private JsonNode readTree(ObjectMapper objectMapper, String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean containsBook(AuthorDataModel authorDataModel, String bookTitle) {
+        return authorDataModel.getBooks().stream()
+                .anyMatch(book -> bookTitle.equals(book.getBookTitle()));
+    }
+
+}
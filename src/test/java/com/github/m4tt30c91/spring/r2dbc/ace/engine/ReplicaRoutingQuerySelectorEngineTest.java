@@ -0,0 +1,241 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.engine;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.Assert;
+
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.AuthorModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.BookModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.AuthorDataModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataModel;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+public class ReplicaRoutingQuerySelectorEngineTest {
+
+    private static DatabaseClient primary;
+    private static DatabaseClient replica;
+    private static DatabaseClient otherReplica;
+    private static DatabaseClient unreachableReplica;
+
+    @BeforeAll
+    public static void setUp() {
+        primary = TestDatabases.create("primary",
+                "INSERT INTO author(id, first_name, last_name) VALUES(1, 'J. R. R.', 'Tolkien')");
+        replica = TestDatabases.create("replica",
+                "INSERT INTO author(id, first_name, last_name) VALUES(2, 'J. K.', 'Rowling')");
+        otherReplica = TestDatabases.create("otherReplica",
+                "INSERT INTO author(id, first_name, last_name) VALUES(3, 'George R. R.', 'Martin')");
+        unreachableReplica = DatabaseClient.create(new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .url("tcp://localhost:1/mem:unreachableReplica")
+                .username("sa")
+                .build()));
+    }
+
+    private static Mono<List<AuthorDataModel>> selectAuthors(QuerySelectorEngine querySelectorEngine) {
+        return querySelectorEngine
+                .processSql(TestDatabases.AUTHORS_WITH_BOOKS)
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .selectMany(AuthorDataModel.class);
+    }
+
+    private static Mono<QueryBatch.Results> selectAuthorsInBatch(QuerySelectorEngine querySelectorEngine) {
+        return querySelectorEngine.batch()
+                .mode(QueryBatch.Mode.SINGLE_CONNECTION)
+                .selectMany(querySelectorEngine.processSql(TestDatabases.AUTHORS_WITH_BOOKS), AuthorDataModel.class,
+                        new AuthorModelMapper(), new BookModelMapper())
+                .selectMany(querySelectorEngine.processSql(TestDatabases.AUTHORS_WITH_BOOKS), AuthorDataModel.class,
+                        new AuthorModelMapper(), new BookModelMapper())
+                .execute();
+    }
+
+    @Test
+    public void shouldSelectFromReplica() {
+        ReplicaRoutingQuerySelectorEngine querySelectorEngine = new ReplicaRoutingQuerySelectorEngine(primary,
+                Collections.singletonList(replica));
+        StepVerifier.create(selectAuthors(querySelectorEngine))
+                .assertNext(list -> Assert.isTrue("Rowling".equals(list.get(0).getLastName()),
+                        "Should select from the replica"))
+                .expectComplete()
+                .verify();
+        ReplicaRoutingQuerySelectorEngine.ReplicaState replicaState = querySelectorEngine.getReplicaStates().get(0);
+        Assert.isTrue(0 == replicaState.getOutstanding(), "Should release the replica");
+        Assert.isTrue(!replicaState.getLatency().isZero(), "Should track the latency");
+    }
+
+    @Test
+    public void shouldReleaseReplicaWhenStatementCannotBePrepared() {
+        ReplicaRoutingQuerySelectorEngine querySelectorEngine = new ReplicaRoutingQuerySelectorEngine(primary,
+                Collections.singletonList(replica));
+        StepVerifier.create(querySelectorEngine
+                .processSql(TestDatabases.AUTHORS_WITH_BOOKS)
+                .bind("authorId", null)
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .selectMany(AuthorDataModel.class))
+                .expectError()
+                .verify();
+        ReplicaRoutingQuerySelectorEngine.ReplicaState replicaState = querySelectorEngine.getReplicaStates().get(0);
+        Assert.isTrue(0 == replicaState.getOutstanding(), "Should release the replica");
+        Assert.isTrue(!replicaState.isEjected(), "Should not eject the replica");
+    }
+
+    @Test
+    public void shouldExecuteSingleConnectionBatchOnReplica() {
+        ReplicaRoutingQuerySelectorEngine querySelectorEngine = new ReplicaRoutingQuerySelectorEngine(primary,
+                Collections.singletonList(replica));
+        StepVerifier.create(selectAuthorsInBatch(querySelectorEngine))
+                .assertNext(results -> Assert.isTrue("Rowling".equals(results.get(0, AuthorDataModel.class).get(0)
+                        .getLastName()), "Should execute the batch on the replica"))
+                .expectComplete()
+                .verify();
+        Assert.isTrue(0 == querySelectorEngine.getReplicaStates().get(0).getOutstanding(),
+                "Should release the replica");
+        StepVerifier.create(selectAuthorsInBatch(querySelectorEngine)
+                .contextWrite(ReplicaRoutingQuerySelectorEngine::readYourWrites))
+                .assertNext(results -> Assert.isTrue("Tolkien".equals(results.get(0, AuthorDataModel.class).get(0)
+                        .getLastName()), "Should execute the batch on the primary"))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldOffloadGroupingToScheduler() {
+        Scheduler scheduler = Schedulers.newSingle("ace-replica-offload");
+        try {
+            ReplicaRoutingQuerySelectorEngine querySelectorEngine = new ReplicaRoutingQuerySelectorEngine(primary,
+                    Collections.singletonList(replica), 3, Duration.ofSeconds(30), scheduler, 0);
+            StepVerifier.create(selectAuthors(querySelectorEngine)
+                    .map(list -> Thread.currentThread().getName()))
+                    .assertNext(name -> Assert.isTrue(name.startsWith("ace-replica-offload"),
+                            "Should be grouped on the offload scheduler"))
+                    .expectComplete()
+                    .verify();
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Test
+    public void shouldSelectLeastOutstandingReplica() {
+        ReplicaRoutingQuerySelectorEngine querySelectorEngine = new ReplicaRoutingQuerySelectorEngine(primary,
+                Arrays.asList(replica, otherReplica));
+        BaseSubscriber<Map<Class<? extends DataModel>, DataModel>> pending = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // no demand, so that the statement stays outstanding
+            }
+        };
+        querySelectorEngine.execute(TestDatabases.AUTHORS_WITH_BOOKS, Collections.emptyMap(), new AuthorModelMapper(),
+                new BookModelMapper()).subscribe(pending);
+        Assert.isTrue(1 == querySelectorEngine.getReplicaStates().get(0).getOutstanding(),
+                "Should count the pending statement");
+        StepVerifier.create(selectAuthors(querySelectorEngine))
+                .assertNext(list -> Assert.isTrue("Martin".equals(list.get(0).getLastName()),
+                        "Should select from the replica with less outstanding statements"))
+                .expectComplete()
+                .verify();
+        pending.dispose();
+        Assert.isTrue(querySelectorEngine.getReplicaStates().stream().allMatch(state -> state.getOutstanding() == 0),
+                "Should release the replicas");
+    }
+
+    @Test
+    public void shouldBreakTiesByLatency() {
+        ReplicaRoutingQuerySelectorEngine querySelectorEngine = new ReplicaRoutingQuerySelectorEngine(primary,
+                Arrays.asList(replica, otherReplica));
+        StepVerifier.create(selectAuthors(querySelectorEngine))
+                .assertNext(list -> Assert.isTrue("Rowling".equals(list.get(0).getLastName()),
+                        "Should select from the first replica"))
+                .expectComplete()
+                .verify();
+        StepVerifier.create(selectAuthors(querySelectorEngine))
+                .assertNext(list -> Assert.isTrue("Martin".equals(list.get(0).getLastName()),
+                        "Should select from the replica with the lowest latency"))
+                .expectComplete()
+                .verify();
+        Assert.isTrue(querySelectorEngine.getReplicaStates().stream().noneMatch(state -> state.getLatency().isZero()),
+                "Should track the latency of both replicas");
+    }
+
+    @Test
+    public void shouldReadmitReplicaAfterEjectionTime() throws InterruptedException {
+        ReplicaRoutingQuerySelectorEngine querySelectorEngine = new ReplicaRoutingQuerySelectorEngine(primary,
+                Arrays.asList(unreachableReplica, replica), 1, Duration.ofMillis(200));
+        StepVerifier.create(selectAuthors(querySelectorEngine))
+                .expectError()
+                .verify();
+        Assert.isTrue(querySelectorEngine.getReplicaStates().get(0).isEjected(), "Should eject the replica");
+        StepVerifier.create(selectAuthors(querySelectorEngine))
+                .assertNext(list -> Assert.isTrue("Rowling".equals(list.get(0).getLastName()),
+                        "Should select from the healthy replica"))
+                .expectComplete()
+                .verify();
+        Thread.sleep(300);
+        Assert.isTrue(!querySelectorEngine.getReplicaStates().get(0).isEjected(), "Should readmit the replica");
+        StepVerifier.create(selectAuthors(querySelectorEngine))
+                .expectError()
+                .verify();
+    }
+
+    @Test
+    public void shouldPinReadYourWritesToPrimary() {
+        ReplicaRoutingQuerySelectorEngine querySelectorEngine = new ReplicaRoutingQuerySelectorEngine(primary,
+                Collections.singletonList(replica));
+        StepVerifier.create(selectAuthors(querySelectorEngine)
+                .contextWrite(ReplicaRoutingQuerySelectorEngine::readYourWrites))
+                .assertNext(list -> Assert.isTrue("Tolkien".equals(list.get(0).getLastName()),
+                        "Should select from the primary"))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldNotEjectReplicaOnStatementError() {
+        ReplicaRoutingQuerySelectorEngine querySelectorEngine = new ReplicaRoutingQuerySelectorEngine(primary,
+                Collections.singletonList(replica), 1, Duration.ofMinutes(1));
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(querySelectorEngine
+                    .processSql("SELECT * FROM nosuchtable")
+                    .applyModelMappers(new AuthorModelMapper())
+                    .selectMany(AuthorDataModel.class))
+                    .expectError()
+                    .verify();
+        }
+        Assert.isTrue(!querySelectorEngine.getReplicaStates().get(0).isEjected(), "Should not eject the replica");
+        StepVerifier.create(selectAuthors(querySelectorEngine))
+                .assertNext(list -> Assert.isTrue("Rowling".equals(list.get(0).getLastName()),
+                        "Should keep selecting from the replica"))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldEjectUnreachableReplica() {
+        ReplicaRoutingQuerySelectorEngine querySelectorEngine = new ReplicaRoutingQuerySelectorEngine(primary,
+                Collections.singletonList(unreachableReplica), 1, Duration.ofMinutes(1));
+        StepVerifier.create(selectAuthors(querySelectorEngine))
+                .expectError()
+                .verify();
+        Assert.isTrue(querySelectorEngine.getReplicaStates().get(0).isEjected(), "Should eject the replica");
+        StepVerifier.create(selectAuthors(querySelectorEngine))
+                .assertNext(list -> Assert.isTrue("Tolkien".equals(list.get(0).getLastName()),
+                        "Should fall back to the primary"))
+                .expectComplete()
+                .verify();
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.Assert;
+
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.AuthorModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.BookModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.AuthorDataModel;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+public class ShardedQuerySelectorEngineTest {
+
+    private static DatabaseClient shard0;
+    private static DatabaseClient shard1;
+
+    @BeforeAll
+    public static void setUp() {
+        shard0 = TestDatabases.create("shard0",
+                "INSERT INTO author(id, first_name, last_name) VALUES(1, 'J. R. R.', 'Tolkien')",
+                "INSERT INTO book(id, book_title, author_id) VALUES(1, 'The Fellowship of the Ring', 1)",
+                "INSERT INTO book(id, book_title, author_id) VALUES(2, 'The Two Towers', 1)",
+                "INSERT INTO book(id, book_title, author_id) VALUES(3, 'The Return of the King', 1)",
+                "INSERT INTO author(id, first_name, last_name) VALUES(2, 'J. K.', 'Rowling')",
+                "INSERT INTO book(id, book_title, author_id) VALUES(4, 'Harry Potter and the Philosopher''s Stone', 2)",
+                "INSERT INTO book(id, book_title, author_id) VALUES(5, 'Harry Potter and the Chamber of Secrets', 2)",
+                "INSERT INTO author(id, first_name, last_name) VALUES(3, 'George R. R.', 'Martin')");
+        shard1 = TestDatabases.create("shard1",
+                "INSERT INTO author(id, first_name, last_name) VALUES(2, 'J. K.', 'Rowling')",
+                "INSERT INTO book(id, book_title, author_id) VALUES(6, 'Harry Potter and the Prisoner of Azkaban', 2)",
+                "INSERT INTO book(id, book_title, author_id) VALUES(7, 'Harry Potter and the Goblet of Fire', 2)",
+                "INSERT INTO author(id, first_name, last_name) VALUES(3, 'George R. R.', 'Martin')",
+                "INSERT INTO book(id, book_title, author_id) VALUES(8, 'A Game of Thrones', 3)");
+    }
+
+    @Test
+    public void shouldMergeAuthorsAcrossShards() {
+        ShardedQuerySelectorEngine querySelectorEngine = new ShardedQuerySelectorEngine(Arrays.asList(shard0, shard1));
+        Mono<List<AuthorDataModel>> authorDataModels = querySelectorEngine
+                .processSql(TestDatabases.AUTHORS_WITH_BOOKS)
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .selectMany(AuthorDataModel.class);
+        StepVerifier.create(authorDataModels)
+                .assertNext(list -> {
+                    Assert.isTrue(3 == list.size(), "Should contain 3 authors");
+                    AuthorDataModel rowling = list.stream().filter(author -> 2 == author.getId()).findFirst().get();
+                    Assert.isTrue(4 == rowling.getBooks().size(), "Should merge the books of both shards");
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldStreamOrderedAuthorsAcrossShards() {
+        ShardedQuerySelectorEngine querySelectorEngine = new ShardedQuerySelectorEngine(Arrays.asList(shard0, shard1))
+                .orderedBy(AuthorDataModel.class, Comparator.comparing(AuthorDataModel::getId));
+        Flux<AuthorDataModel> authorDataModels = querySelectorEngine
+                .processSql(TestDatabases.AUTHORS_WITH_BOOKS)
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .streamMany(AuthorDataModel.class);
+        StepVerifier.create(authorDataModels)
+                .assertNext(tolkien -> Assert.isTrue(3 == tolkien.getBooks().size(), "Should have written 3 books"))
+                .assertNext(rowling -> Assert.isTrue(4 == rowling.getBooks().size(),
+                        "Should merge the books of both shards"))
+                .assertNext(martin -> Assert.isTrue(1 == martin.getBooks().size(),
+                        "Should keep the books of the shard the first record does not come from"))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldMergeBaseFoundOnSeveralShards() {
+        ShardedQuerySelectorEngine querySelectorEngine = new ShardedQuerySelectorEngine(Arrays.asList(shard0, shard1),
+                bindings -> Collections.emptyList(), 1);
+        Mono<List<AuthorDataModel>> authorDataModels = querySelectorEngine
+                .processSql(TestDatabases.AUTHORS_WITH_BOOKS)
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .selectMany(AuthorDataModel.class);
+        StepVerifier.create(authorDataModels)
+                .assertNext(list -> {
+                    AuthorDataModel martin = list.stream().filter(author -> 3 == author.getId()).findFirst().get();
+                    Assert.notNull(martin.getBooks(), "Should keep the books of the second shard");
+                    Assert.isTrue(1 == martin.getBooks().size(), "Should have written 1 book");
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldOffloadMergedGroupingToScheduler() {
+        Scheduler scheduler = Schedulers.newSingle("ace-shard-offload");
+        try {
+            ShardedQuerySelectorEngine querySelectorEngine = new ShardedQuerySelectorEngine(
+                    Arrays.asList(shard0, shard1), bindings -> Collections.emptyList(), 2, scheduler, 0)
+                    .orderedBy(AuthorDataModel.class, Comparator.comparing(AuthorDataModel::getId));
+            Mono<String> threadName = querySelectorEngine
+                    .processSql(TestDatabases.AUTHORS_WITH_BOOKS)
+                    .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                    .selectMany(AuthorDataModel.class)
+                    .map(list -> Thread.currentThread().getName());
+            StepVerifier.create(threadName)
+                    .assertNext(name -> Assert.isTrue(name.startsWith("ace-shard-offload"),
+                            "Should be grouped on the offload scheduler"))
+                    .expectComplete()
+                    .verify();
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Test
+    public void shouldRejectInvalidShards() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new ShardedQuerySelectorEngine(Collections.emptyList()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new ShardedQuerySelectorEngine(Arrays.asList(shard0, shard1), bindings -> null, 0));
+    }
+
+    @Test
+    public void shouldRouteByBindValues() {
+        ShardedQuerySelectorEngine querySelectorEngine = new ShardedQuerySelectorEngine(Arrays.asList(shard0, shard1),
+                bindings -> Collections.singletonList((Integer) bindings.get("authorId") == 3 ? 1 : 0), 1);
+        Mono<List<AuthorDataModel>> authorDataModels = querySelectorEngine
+                .processSql(
+                        "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a LEFT JOIN book b ON a.id = b.author_id WHERE a.id = :authorId")
+                .bind("authorId", 2)
+                .applyModelMappers(new AuthorModelMapper(), new BookModelMapper())
+                .selectMany(AuthorDataModel.class);
+        StepVerifier.create(authorDataModels)
+                .assertNext(list -> {
+                    Assert.isTrue(1 == list.size(), "Should contain 1 author");
+                    Assert.isTrue(2 == list.get(0).getBooks().size(), "Should only query the first shard");
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldRejectUnknownShardIndexes() {
+        ShardedQuerySelectorEngine querySelectorEngine = new ShardedQuerySelectorEngine(Arrays.asList(shard0, shard1),
+                bindings -> Collections.singletonList(5), 1);
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> querySelectorEngine
+                        .processSql("SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName FROM author a")
+                        .applyModelMappers(new AuthorModelMapper())
+                        .selectMany(AuthorDataModel.class)
+                        .block());
+        Assert.isTrue(exception.getMessage().contains("routed to shard 5"), "Should name the index");
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.engine;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * The scenarios of the QuerySelectorEngine run without a Spring context, so that
+ * they can be run as a native image as well
+ */
+public class StandaloneQuerySelectorEngineTest extends QuerySelectorEngineScenarios {
+
+    private static final DatabaseClient DATABASE_CLIENT = TestDatabases.createFromScript("standalone", "/schema.sql");
+
+    public StandaloneQuerySelectorEngineTest() {
+        super(DATABASE_CLIENT);
+    }
+
+}
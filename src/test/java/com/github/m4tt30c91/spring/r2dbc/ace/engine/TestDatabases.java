@@ -0,0 +1,75 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.h2.H2ConnectionFactory;
+import reactor.core.publisher.Flux;
+
+/**
+ * The embedded H2 databases shared by the tests that do not start a Spring
+ * context
+ */
+final class TestDatabases {
+
+    static final String AUTHORS_WITH_BOOKS = "SELECT a.id AS authorId, a.first_name AS firstName, a.last_name AS lastName, b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM author a LEFT JOIN book b ON a.id = b.author_id ORDER BY a.id";
+
+    private TestDatabases() {
+    }
+
+    /**
+     * Create an in-memory database holding the author and book tables
+     *
+     * @param name    the database name
+     * @param inserts the statements filling the tables
+     * @return the DatabaseClient of the database
+     */
+    static DatabaseClient create(String name, String... inserts) {
+        return createSchema(DatabaseClient.create(H2ConnectionFactory.inMemory(name)), inserts);
+    }
+
+    /**
+     * Replace the content of a database with the author and book tables
+     *
+     * @param databaseClient the DatabaseClient of the database
+     * @param inserts        the statements filling the tables
+     * @return the same DatabaseClient
+     */
+    static DatabaseClient createSchema(DatabaseClient databaseClient, String... inserts) {
+        Flux.concat(Flux.just(
+                "DROP ALL OBJECTS",
+                "CREATE TABLE author (id INTEGER PRIMARY KEY, first_name VARCHAR(128), last_name VARCHAR(128))",
+                "CREATE TABLE book (id INTEGER PRIMARY KEY, book_title VARCHAR(255), author_id INTEGER)"),
+                Flux.fromArray(inserts))
+                .concatMap(sql -> databaseClient.sql(sql).then())
+                .blockLast();
+        return databaseClient;
+    }
+
+    /**
+     * Create an in-memory database initialized by a script of the test
+     * resources, whose statements are separated by semicolons
+     *
+     * @param name   the database name
+     * @param script the classpath location of the script, e.g. /schema.sql
+     * @return the DatabaseClient of the database
+     */
+    static DatabaseClient createFromScript(String name, String script) {
+        String sql;
+        try (InputStream inputStream = TestDatabases.class.getResourceAsStream(script)) {
+            sql = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        DatabaseClient databaseClient = DatabaseClient.create(H2ConnectionFactory.inMemory(name));
+        Flux.fromArray(sql.split(";"))
+                .map(String::trim)
+                .filter(statement -> !statement.isEmpty())
+                .concatMap(statement -> databaseClient.sql(statement).then())
+                .blockLast();
+        return databaseClient;
+    }
+}
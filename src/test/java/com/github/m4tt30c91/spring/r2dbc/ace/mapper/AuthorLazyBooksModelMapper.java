@@ -0,0 +1,15 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.mapper;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.github.m4tt30c91.spring.r2dbc.ace.model.Author2BookLazyDataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataGroupModel;
+
+public class AuthorLazyBooksModelMapper extends AuthorModelMapper {
+
+    @Override
+    public List<DataGroupModel> getDataGroupModels() {
+        return Collections.singletonList(new Author2BookLazyDataGroupModel());
+    }
+}
@@ -1,7 +1,9 @@
 package com.github.m4tt30c91.spring.r2dbc.ace.mapper;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.github.m4tt30c91.spring.r2dbc.ace.model.AuthorDataModel;
 import com.github.m4tt30c91.spring.r2dbc.ace.model.DataGroupModel;
@@ -9,7 +11,7 @@ import com.github.m4tt30c91.spring.r2dbc.ace.model.DataGroupModel;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 
-public class AuthorModelMapper implements ModelMapper<AuthorDataModel> {
+public class AuthorModelMapper implements TableModelMapper<AuthorDataModel> {
 
     @Override
     public AuthorDataModel map(Row row, RowMetadata rowMetadata) {
@@ -24,6 +26,30 @@ public class AuthorModelMapper implements ModelMapper<AuthorDataModel> {
         return authorDataModel;
     }
 
+    @Override
+    public String table() {
+        return "author";
+    }
+
+    @Override
+    public String tableAlias() {
+        return "a";
+    }
+
+    @Override
+    public Map<String, String> columns() {
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("authorId", "id");
+        columns.put("firstName", "first_name");
+        columns.put("lastName", "last_name");
+        return columns;
+    }
+
+    @Override
+    public String keyColumn() {
+        return "id";
+    }
+
     @Override
     public List<DataGroupModel> getDataGroupModels() {
         return Collections.emptyList();
@@ -1,7 +1,9 @@
 package com.github.m4tt30c91.spring.r2dbc.ace.mapper;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.github.m4tt30c91.spring.r2dbc.ace.model.Author2BookDataGroupModel;
 import com.github.m4tt30c91.spring.r2dbc.ace.model.BookDataModel;
@@ -10,7 +12,7 @@ import com.github.m4tt30c91.spring.r2dbc.ace.model.DataGroupModel;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 
-public class BookModelMapper implements ModelMapper<BookDataModel> {
+public class BookModelMapper implements TableModelMapper<BookDataModel> {
 
     @Override
     public BookDataModel map(Row row, RowMetadata rowMetadata) {
@@ -25,6 +27,30 @@ public class BookModelMapper implements ModelMapper<BookDataModel> {
         return bookDataModel;
     }
 
+    @Override
+    public String table() {
+        return "book";
+    }
+
+    @Override
+    public String tableAlias() {
+        return "b";
+    }
+
+    @Override
+    public Map<String, String> columns() {
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("bookId", "id");
+        columns.put("bookTitle", "book_title");
+        columns.put("bookAuthorId", "author_id");
+        return columns;
+    }
+
+    @Override
+    public String keyColumn() {
+        return "id";
+    }
+
     @Override
     public List<DataGroupModel> getDataGroupModels() {
         return Collections.singletonList(new Author2BookDataGroupModel());
@@ -0,0 +1,32 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.mapper;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.github.m4tt30c91.spring.r2dbc.ace.model.Category2CategoryTreeDataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.CategoryDataModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataGroupModel;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+
+public class CategoryModelMapper implements ModelMapper<CategoryDataModel> {
+
+    @Override
+    public CategoryDataModel map(Row row, RowMetadata rowMetadata) {
+        Integer id = row.get("categoryId", Integer.class);
+        if (id == null) {
+            return null;
+        }
+        CategoryDataModel categoryDataModel = new CategoryDataModel();
+        categoryDataModel.setId(id);
+        categoryDataModel.setName(row.get("categoryName", String.class));
+        categoryDataModel.setParentId(row.get("parentId", Integer.class));
+        return categoryDataModel;
+    }
+
+    @Override
+    public List<DataGroupModel> getDataGroupModels() {
+        return Collections.singletonList(new Category2CategoryTreeDataGroupModel());
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.mapper;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.Assert;
+
+import com.github.m4tt30c91.spring.r2dbc.ace.model.Author2BookDataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.AuthorDataModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.BookDataModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataGroupModel;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+
+public class ModelMapperRegistryTest {
+
+    @Test
+    public void shouldRegisterModelMappers() {
+        ModelMapperRegistry modelMapperRegistry = new ModelMapperRegistry();
+        modelMapperRegistry.register(AuthorDataModel.class, new AuthorModelMapper(), new BookModelMapper());
+        ModelMapperSet modelMapperSet = modelMapperRegistry.get(AuthorDataModel.class);
+        Assert.isTrue(2 == modelMapperSet.getModelMappers().length, "Should contain 2 ModelMappers");
+        Assert.isTrue(1 == modelMapperSet.getDataGroupModels().size(), "Should contain 1 DataGroupModel");
+        Assert.isInstanceOf(Author2BookDataGroupModel.class, modelMapperSet.getDataGroupModels().get(0),
+                "Should contain Author2BookDataGroupModel");
+    }
+
+    @Test
+    public void shouldCopyModelMappers() {
+        ModelMapper[] modelMappers = { new AuthorModelMapper(), new BookModelMapper() };
+        ModelMapperSet modelMapperSet = ModelMapperSet.of(modelMappers);
+        modelMappers[1] = null;
+        modelMapperSet.getModelMappers()[0] = null;
+        Assert.noNullElements(modelMapperSet.getModelMappers(), "Should not share the array of ModelMappers");
+    }
+
+    @Test
+    public void shouldRejectUnregisteredClass() {
+        ModelMapperRegistry modelMapperRegistry = new ModelMapperRegistry();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> modelMapperRegistry.get(BookDataModel.class));
+    }
+
+    @Test
+    public void shouldRejectClassCollisions() {
+        ModelMapperRegistry modelMapperRegistry = new ModelMapperRegistry();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> modelMapperRegistry
+                .register(AuthorDataModel.class, new AuthorModelMapper(), new AuthorModelMapper()));
+    }
+
+    @Test
+    public void shouldRejectMissingTarget() {
+        ModelMapperRegistry modelMapperRegistry = new ModelMapperRegistry();
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> modelMapperRegistry.register(AuthorDataModel.class, new BookModelMapper()));
+    }
+
+    @Test
+    public void shouldRejectCycles() {
+        ModelMapperRegistry modelMapperRegistry = new ModelMapperRegistry();
+        ModelMapper<AuthorDataModel> cyclicAuthorModelMapper = new ModelMapper<AuthorDataModel>() {
+
+            @Override
+            public AuthorDataModel map(Row row, RowMetadata rowMetadata) {
+                return null;
+            }
+
+            @Override
+            public List<DataGroupModel> getDataGroupModels() {
+                return Collections.singletonList(new DataGroupModel<BookDataModel, AuthorDataModel>() {
+
+                    @Override
+                    public Class<BookDataModel> base() {
+                        return BookDataModel.class;
+                    }
+
+                    @Override
+                    public Class<AuthorDataModel> collectable() {
+                        return AuthorDataModel.class;
+                    }
+
+                    @Override
+                    public List<AuthorDataModel> getCollectables(BookDataModel base) {
+                        return null;
+                    }
+
+                    @Override
+                    public void setCollectables(BookDataModel base, List<AuthorDataModel> collectables) {
+                    }
+                });
+            }
+        };
+        Assertions.assertThrows(IllegalArgumentException.class, () -> modelMapperRegistry
+                .register(AuthorDataModel.class, cyclicAuthorModelMapper, new BookModelMapper()));
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.mapper;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.m4tt30c91.spring.r2dbc.ace.model.Book2TagDataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.DataGroupModel;
+import com.github.m4tt30c91.spring.r2dbc.ace.model.TagDataModel;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+
+public class TagModelMapper implements TableModelMapper<TagDataModel> {
+
+    @Override
+    public TagDataModel map(Row row, RowMetadata rowMetadata) {
+        Integer id = row.get("tagId", Integer.class);
+        if (id == null) {
+            return null;
+        }
+        TagDataModel tagDataModel = new TagDataModel();
+        tagDataModel.setId(id);
+        tagDataModel.setName(row.get("tagName", String.class));
+        return tagDataModel;
+    }
+
+    @Override
+    public String table() {
+        return "tag";
+    }
+
+    @Override
+    public String tableAlias() {
+        return "t";
+    }
+
+    @Override
+    public Map<String, String> columns() {
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("tagId", "id");
+        columns.put("tagName", "name");
+        return columns;
+    }
+
+    @Override
+    public String keyColumn() {
+        return "id";
+    }
+
+    @Override
+    public List<DataGroupModel> getDataGroupModels() {
+        return Collections.singletonList(new Book2TagDataGroupModel());
+    }
+}
@@ -2,7 +2,7 @@ package com.github.m4tt30c91.spring.r2dbc.ace.model;
 
 import java.util.List;
 
-public class Author2BookDataGroupModel implements DataGroupModel<AuthorDataModel, BookDataModel> {
+public class Author2BookDataGroupModel implements JoinDataGroupModel<AuthorDataModel, BookDataModel> {
 
     @Override
     public Class<AuthorDataModel> base() {
@@ -14,6 +14,16 @@ public class Author2BookDataGroupModel implements DataGroupModel<AuthorDataModel
         return BookDataModel.class;
     }
 
+    @Override
+    public String baseColumn() {
+        return "id";
+    }
+
+    @Override
+    public String collectableColumn() {
+        return "author_id";
+    }
+
     @Override
     public List<BookDataModel> getCollectables(AuthorDataModel base) {
         return base.getBooks();
@@ -0,0 +1,38 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.model;
+
+import java.util.List;
+
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.BookModelMapper;
+import com.github.m4tt30c91.spring.r2dbc.ace.mapper.ModelMapper;
+
+import reactor.core.publisher.Mono;
+
+public class Author2BookLazyDataGroupModel extends Author2BookDataGroupModel
+        implements LazyDataGroupModel<AuthorDataModel, BookDataModel> {
+
+    @Override
+    public String sql() {
+        return "SELECT b.id AS bookId, b.book_title AS bookTitle, b.author_id AS bookAuthorId FROM book b WHERE b.author_id IN (:keys)";
+    }
+
+    @Override
+    public ModelMapper[] getModelMappers() {
+        return new ModelMapper[] { new BookModelMapper() };
+    }
+
+    @Override
+    public Object baseKey(AuthorDataModel base) {
+        return base.getId();
+    }
+
+    @Override
+    public Object collectableKey(BookDataModel collectable) {
+        return collectable.getAuthorId();
+    }
+
+    @Override
+    public void setLazyCollectables(AuthorDataModel base, Mono<List<BookDataModel>> collectables) {
+        base.setLazyBooks(collectables);
+    }
+
+}
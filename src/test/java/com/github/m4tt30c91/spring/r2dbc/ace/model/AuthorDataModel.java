@@ -2,12 +2,15 @@ package com.github.m4tt30c91.spring.r2dbc.ace.model;
 
 import java.util.List;
 
+import reactor.core.publisher.Mono;
+
 public class AuthorDataModel implements DataModel {
 
     private int id;
     private String firstName;
     private String lastName;
     private List<BookDataModel> books;
+    private Mono<List<BookDataModel>> lazyBooks;
 
     @Override
     public String uniqueIdentifier() {
@@ -45,4 +48,12 @@ public class AuthorDataModel implements DataModel {
     public void setBooks(List<BookDataModel> books) {
         this.books = books;
     }
+
+    public Mono<List<BookDataModel>> getLazyBooks() {
+        return lazyBooks;
+    }
+
+    public void setLazyBooks(Mono<List<BookDataModel>> lazyBooks) {
+        this.lazyBooks = lazyBooks;
+    }
 }
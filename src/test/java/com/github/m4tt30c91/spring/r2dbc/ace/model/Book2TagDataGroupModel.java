@@ -0,0 +1,52 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.model;
+
+import java.util.List;
+
+public class Book2TagDataGroupModel implements JoinDataGroupModel<BookDataModel, TagDataModel> {
+
+    @Override
+    public Class<BookDataModel> base() {
+        return BookDataModel.class;
+    }
+
+    @Override
+    public Class<TagDataModel> collectable() {
+        return TagDataModel.class;
+    }
+
+    @Override
+    public String baseColumn() {
+        return "id";
+    }
+
+    @Override
+    public String collectableColumn() {
+        return "id";
+    }
+
+    @Override
+    public String linkTable() {
+        return "book_tag";
+    }
+
+    @Override
+    public String linkBaseColumn() {
+        return "book_id";
+    }
+
+    @Override
+    public String linkCollectableColumn() {
+        return "tag_id";
+    }
+
+    @Override
+    public List<TagDataModel> getCollectables(BookDataModel base) {
+        return base.getTags();
+    }
+
+    @Override
+    public void setCollectables(BookDataModel base, List<TagDataModel> collectables) {
+        base.setTags(collectables);
+    }
+
+}
@@ -1,10 +1,13 @@
 package com.github.m4tt30c91.spring.r2dbc.ace.model;
 
+import java.util.List;
+
 public class BookDataModel implements DataModel {
 
     private int id;
     private String bookTitle;
     private int authorId;
+    private List<TagDataModel> tags;
 
     @Override
     public String uniqueIdentifier() {
@@ -35,4 +38,12 @@ public class BookDataModel implements DataModel {
         this.authorId = authorId;
     }
 
+    public List<TagDataModel> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<TagDataModel> tags) {
+        this.tags = tags;
+    }
+
 }
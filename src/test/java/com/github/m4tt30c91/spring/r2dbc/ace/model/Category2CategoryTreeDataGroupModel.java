@@ -0,0 +1,27 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.model;
+
+import java.util.List;
+
+public class Category2CategoryTreeDataGroupModel implements TreeDataGroupModel<CategoryDataModel> {
+
+    @Override
+    public Class<CategoryDataModel> base() {
+        return CategoryDataModel.class;
+    }
+
+    @Override
+    public List<CategoryDataModel> getCollectables(CategoryDataModel base) {
+        return base.getChildren();
+    }
+
+    @Override
+    public void setCollectables(CategoryDataModel base, List<CategoryDataModel> collectables) {
+        base.setChildren(collectables);
+    }
+
+    @Override
+    public String parentIdentifier(CategoryDataModel node) {
+        return node.getParentId() == null ? null : node.getParentId() + "";
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.model;
+
+import java.util.List;
+
+public class CategoryDataModel implements DataModel {
+
+    private int id;
+    private String name;
+    private Integer parentId;
+    private List<CategoryDataModel> children;
+
+    @Override
+    public String uniqueIdentifier() {
+        return this.id + "";
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Integer parentId) {
+        this.parentId = parentId;
+    }
+
+    public List<CategoryDataModel> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<CategoryDataModel> children) {
+        this.children = children;
+    }
+
+}
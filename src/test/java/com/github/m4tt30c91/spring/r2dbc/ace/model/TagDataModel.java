@@ -0,0 +1,29 @@
+package com.github.m4tt30c91.spring.r2dbc.ace.model;
+
+public class TagDataModel implements DataModel {
+
+    private int id;
+    private String name;
+
+    @Override
+    public String uniqueIdentifier() {
+        return this.id + "";
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+}
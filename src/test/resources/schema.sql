@@ -16,4 +16,24 @@ INSERT INTO book(id, book_title, author_id) VALUES(8, 'Harry Potter and the Orde
 INSERT INTO book(id, book_title, author_id) VALUES(9, 'Harry Potter and the Half-Blood Prince', 2);
 INSERT INTO book(id, book_title, author_id) VALUES(10, 'Harry Potter and the Deathly Hallows', 2);
 
-INSERT INTO author(id, first_name, last_name) VALUES(3, 'George R. R.', 'Martin');
\ No newline at end of file
+INSERT INTO author(id, first_name, last_name) VALUES(3, 'George R. R.', 'Martin');
+CREATE TABLE tag (id INTEGER PRIMARY KEY, name VARCHAR(64));
+CREATE TABLE book_tag (book_id INTEGER, tag_id INTEGER, PRIMARY KEY (book_id, tag_id));
+ALTER TABLE book_tag ADD FOREIGN KEY (book_id) REFERENCES book(id);
+ALTER TABLE book_tag ADD FOREIGN KEY (tag_id) REFERENCES tag(id);
+
+INSERT INTO tag(id, name) VALUES(1, 'Fantasy');
+INSERT INTO tag(id, name) VALUES(2, 'Epic');
+INSERT INTO tag(id, name) VALUES(3, 'Wizards');
+INSERT INTO book_tag(book_id, tag_id) SELECT id, 1 FROM book;
+INSERT INTO book_tag(book_id, tag_id) SELECT id, 2 FROM book WHERE author_id = 1;
+INSERT INTO book_tag(book_id, tag_id) SELECT id, 3 FROM book WHERE author_id = 2;
+CREATE TABLE category (id INTEGER PRIMARY KEY, name VARCHAR(64), parent_id INTEGER);
+ALTER TABLE category ADD FOREIGN KEY (parent_id) REFERENCES category(id);
+
+INSERT INTO category(id, name, parent_id) VALUES(1, 'Books', NULL);
+INSERT INTO category(id, name, parent_id) VALUES(2, 'Fiction', 1);
+INSERT INTO category(id, name, parent_id) VALUES(3, 'Fantasy', 2);
+INSERT INTO category(id, name, parent_id) VALUES(4, 'Science Fiction', 2);
+INSERT INTO category(id, name, parent_id) VALUES(5, 'Non-fiction', 1);
+INSERT INTO category(id, name, parent_id) VALUES(6, 'Music', NULL);